@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Samples function of one variable for plotting.<br>
+ * Function is evaluated on uniform grid first, then segments are split in halves where function
+ * is not close to linear: on curves, near poles and at boundaries of domain. Every round of refinement
+ * evaluates midpoints of unsettled segments in one batch, which is split across cores into tasks
+ * of {@link #ROWS_PER_TASK} points. Round uses at most half of remaining budget of points,
+ * and segments with the largest deviation are split first. Segments which are still unsettled when budget
+ * is exhausted and jump more than height of graph are treated as discontinuities.
+ */
+class AdaptiveSampler {
+
+	/**
+	 * Segments are not split when they become narrower than range divided by this
+	 */
+	private static final double MIN_SEGMENT_FRACTION = 0x1p-40;
+
+	/**
+	 * Part of points which is used for initial uniform grid
+	 */
+	private static final int INITIAL_GRID_DIVISOR = 8;
+
+	/**
+	 * Fraction of extreme values which is ignored when scale of graph is computed, so poles do not flatten it
+	 */
+	private static final double OUTLIERS_FRACTION = 0.02;
+
+	/**
+	 * Rounds have hundreds of points at usual budgets, which is much less than chunk of batch evaluation.
+	 * Smaller tasks let rounds use several cores, which matters when rows fall back to {@link java.math.BigDecimal}
+	 */
+	private static final int ROWS_PER_TASK = 64;
+
+	private final CompiledExpression expression;
+	private final String variable;
+	private final CancellationToken cancellationToken;
+
+	AdaptiveSampler(CompiledExpression expression, String variable, CancellationToken cancellationToken) {
+		this.expression = expression;
+		this.variable = variable;
+		this.cancellationToken = cancellationToken;
+	}
+
+	PlotSamples sample(double from, double to, int maxPoints) {
+		int initial = Math.max(2, maxPoints / INITIAL_GRID_DIVISOR);
+		double[] x = new double[initial];
+		for (int i = 0; i < initial; i++)
+			x[i] = i == initial - 1 ? to : from + (to - from) * i / (initial - 1);
+		double[] y = evaluate(x);
+
+		// deviation is compared with height of one pixel if graph is about as high as wide
+		double tolerance = scale(y) / maxPoints;
+		double minWidth = (to - from) * MIN_SEGMENT_FRACTION;
+
+		// deviations[i] is deviation of segment [x[i], x[i + 1]], segments with unknown deviation are split first
+		double[] deviations = new double[initial - 1];
+		Arrays.fill(deviations, Double.POSITIVE_INFINITY);
+		int size = initial;
+		while (size < maxPoints) {
+			int[] segments = unsettled(deviations, tolerance);
+			if (segments.length == 0)
+				break;
+			// at most half of remaining budget per round, so the worst segments can be split several times
+			int batch = Math.max(1, (maxPoints - size) / 2);
+			if (segments.length > batch)
+				segments = mostDeviated(segments, deviations, batch);
+
+			double[] midX = new double[segments.length];
+			for (int i = 0; i < segments.length; i++)
+				midX[i] = (x[segments[i]] + x[segments[i] + 1]) / 2;
+			double[] midY = evaluate(midX);
+
+			double[] newX = new double[size + segments.length];
+			double[] newY = new double[newX.length];
+			double[] newDeviations = new double[newX.length - 1];
+			int k = 0;
+			int s = 0;
+			for (int i = 0; i < size; i++) {
+				newX[k] = x[i];
+				newY[k] = y[i];
+				if (s < segments.length && segments[s] == i) {
+					double deviation = deviation(y[i], midY[s], y[i + 1]);
+					if (midX[s] - x[i] <= minWidth)
+						deviation = 0;
+					newDeviations[k++] = deviation;
+					newX[k] = midX[s];
+					newY[k] = midY[s];
+					newDeviations[k++] = deviation;
+					s++;
+				} else {
+					if (i < size - 1)
+						newDeviations[k] = deviations[i];
+					k++;
+				}
+			}
+			x = newX;
+			y = newY;
+			deviations = newDeviations;
+			size = newX.length;
+		}
+		return breakDiscontinuities(x, y, unsettled(deviations, tolerance), scale(y));
+	}
+
+	/**
+	 * Inserts points with NaN into unsettled segments where function jumps more than height of graph
+	 * against direction of both neighbouring segments, so poles are not drawn as vertical lines
+	 */
+	private static PlotSamples breakDiscontinuities(double[] x, double[] y, int[] unsettled, double scale) {
+		int[] breaks = Arrays.stream(unsettled)
+				.filter(i -> isJump(y, i, scale))
+				.toArray();
+		if (breaks.length == 0)
+			return new PlotSamples(x, y);
+		double[] newX = new double[x.length + breaks.length];
+		double[] newY = new double[newX.length];
+		int k = 0;
+		int b = 0;
+		for (int i = 0; i < x.length; i++) {
+			newX[k] = x[i];
+			newY[k++] = y[i];
+			if (b < breaks.length && breaks[b] == i) {
+				newX[k] = (x[i] + x[i + 1]) / 2;
+				newY[k++] = Double.NaN;
+				b++;
+			}
+		}
+		return new PlotSamples(newX, newY);
+	}
+
+	private static boolean isJump(double[] y, int segment, double scale) {
+		double jump = y[segment + 1] - y[segment];
+		if (!(Math.abs(jump) > scale))
+			return false;
+		boolean againstLeft = segment == 0 || Math.signum(y[segment] - y[segment - 1]) != Math.signum(jump);
+		boolean againstRight = segment + 2 >= y.length || Math.signum(y[segment + 2] - y[segment + 1]) != Math.signum(jump);
+		return againstLeft && againstRight;
+	}
+
+	private double[] evaluate(double[] x) {
+		double[] y = new double[x.length];
+		expression.evaluateBatch(Map.of(variable, x), y, cancellationToken, ROWS_PER_TASK);
+		return y;
+	}
+
+	/**
+	 * @return Distance from midpoint to chord, infinity if function is defined only at some of three points
+	 */
+	private static double deviation(double left, double middle, double right) {
+		boolean leftDefined = !Double.isNaN(left);
+		boolean middleDefined = !Double.isNaN(middle);
+		boolean rightDefined = !Double.isNaN(right);
+		if (leftDefined && middleDefined && rightDefined)
+			return Math.abs(middle - (left + right) / 2);
+		if (leftDefined || middleDefined || rightDefined)
+			return Double.POSITIVE_INFINITY;
+		return 0;
+	}
+
+	/**
+	 * @return Height of graph without extreme values, 1 if function is constant or not defined
+	 */
+	private static double scale(double[] y) {
+		double[] defined = Arrays.stream(y).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		if (defined.length == 0)
+			return 1;
+		int skip = (int) (defined.length * OUTLIERS_FRACTION);
+		double height = defined[defined.length - 1 - skip] - defined[skip];
+		return height > 0 ? height : Math.max(1, Math.abs(defined[skip]));
+	}
+
+	/**
+	 * @return Indices of segments whose deviation exceeds tolerance
+	 */
+	private static int[] unsettled(double[] deviations, double tolerance) {
+		int[] result = new int[deviations.length];
+		int count = 0;
+		for (int i = 0; i < deviations.length; i++) {
+			if (deviations[i] > tolerance)
+				result[count++] = i;
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * @return {@code count} segments with the largest deviations in ascending order of indices
+	 */
+	private static int[] mostDeviated(int[] segments, double[] deviations, int count) {
+		Integer[] order = new Integer[segments.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = segments[i];
+		Arrays.sort(order, (a, b) -> Double.compare(deviations[b], deviations[a]));
+		int[] result = new int[count];
+		for (int i = 0; i < count; i++)
+			result[i] = order[i];
+		Arrays.sort(result);
+		return result;
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.utils.MathConstants;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Units in which trigonometric functions take arguments and inverse trigonometric functions return results.
+ *
+ * @see Calculator#setAngleMode(AngleMode)
+ */
+public enum AngleMode {
+	RADIANS(null),
+	DEGREES(BigDecimal.valueOf(360)),
+	GRADIANS(BigDecimal.valueOf(400));
+
+	private final BigDecimal fullTurn;
+
+	AngleMode(BigDecimal fullTurn) {
+		this.fullTurn = fullTurn;
+	}
+
+	/**
+	 * @return Size of full turn in this unit or {@code null} for radians, where it is not exact
+	 */
+	public BigDecimal getFullTurn() {
+		return fullTurn;
+	}
+
+	/**
+	 * @return Size of one unit in radians, cached per precision
+	 */
+	public BigDecimal radiansPerUnit(MathContext mc) {
+		switch (this) {
+			case DEGREES:
+				return MathConstants.radiansPerDegree(mc);
+			case GRADIANS:
+				return MathConstants.radiansPerGradian(mc);
+			default:
+				return BigDecimal.ONE;
+		}
+	}
+}
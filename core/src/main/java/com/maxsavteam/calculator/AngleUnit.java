@@ -66,7 +66,7 @@ public abstract class AngleUnit {
 		@Override
 		public BigDecimal toRadians() {
 			return angle
-					.multiply(MathUtils.PI)
+					.multiply(MathUtils.pi())
 					.divide(BigDecimal.valueOf(180), MATH_CONTEXT);
 		}
 
@@ -85,7 +85,7 @@ public abstract class AngleUnit {
 		public BigDecimal toDegrees() {
 			return angle
 					.multiply(BigDecimal.valueOf(180))
-					.divide(MathUtils.PI, MATH_CONTEXT);
+					.divide(MathUtils.pi(), MATH_CONTEXT);
 		}
 
 		@Override
@@ -97,7 +97,7 @@ public abstract class AngleUnit {
 		public BigDecimal toGradians() {
 			return angle
 					.multiply(BigDecimal.valueOf(200))
-					.divide(MathUtils.PI, MATH_CONTEXT);
+					.divide(MathUtils.pi(), MATH_CONTEXT);
 		}
 	}
 
@@ -114,7 +114,7 @@ public abstract class AngleUnit {
 		@Override
 		public BigDecimal toRadians() {
 			return angle
-					.multiply(MathUtils.PI)
+					.multiply(MathUtils.pi())
 					.divide(BigDecimal.valueOf(200), MATH_CONTEXT);
 		}
 
@@ -17,6 +17,9 @@
 package com.maxsavteam.calculator;
 
 import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.functions.Evaluator;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.functions.FunctionRegistry;
 import com.maxsavteam.calculator.resolvers.BinaryOperatorResolver;
 import com.maxsavteam.calculator.resolvers.BracketsResolver;
 import com.maxsavteam.calculator.resolvers.ConstantsResolver;
@@ -24,10 +27,13 @@ import com.maxsavteam.calculator.resolvers.FunctionsResolver;
 import com.maxsavteam.calculator.resolvers.ListFunctionsResolver;
 import com.maxsavteam.calculator.resolvers.SuffixOperatorResolver;
 import com.maxsavteam.calculator.results.BaseResult;
+import com.maxsavteam.calculator.results.CalculationResult;
+import com.maxsavteam.calculator.results.LazyNumberList;
 import com.maxsavteam.calculator.results.Number;
 import com.maxsavteam.calculator.results.NumberList;
 import com.maxsavteam.calculator.tree.BinaryOperator;
 import com.maxsavteam.calculator.tree.BracketsType;
+import com.maxsavteam.calculator.tree.Grammar;
 import com.maxsavteam.calculator.tree.SuffixOperator;
 import com.maxsavteam.calculator.tree.TreeBuilder;
 import com.maxsavteam.calculator.tree.nodes.BracketsNode;
@@ -40,6 +46,7 @@ import com.maxsavteam.calculator.tree.nodes.OperatorNode;
 import com.maxsavteam.calculator.tree.nodes.SuffixOperatorNode;
 import com.maxsavteam.calculator.tree.nodes.TreeNode;
 import com.maxsavteam.calculator.utils.CalculatorUtils;
+import com.maxsavteam.calculator.utils.EvaluationContext;
 import com.maxsavteam.calculator.utils.MathUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -48,7 +55,9 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -64,11 +73,17 @@ public class Calculator {
 	private final TreeBuilder builder;
 	private final CalculatorExpressionTokenizer expressionTokenizer;
 	private final CalculatorExpressionFormatter expressionFormatter;
+	public static final int DEFAULT_DIGIT_LIMIT = 1_000_000;
+
 	private static int roundScale = 8;
+	private int digitLimit = DEFAULT_DIGIT_LIMIT;
+	private AngleMode angleMode = AngleMode.RADIANS;
 	private BinaryOperatorResolver resolver = defaultResolver;
 	private BracketsResolver bracketsResolver = defaultBracketsResolver;
 	private FunctionsResolver functionsResolver = defaultFunctionsResolver;
 	private ListFunctionsResolver listFunctionsResolver = defaultListFunctionResolver;
+	private final FunctionRegistry functionRegistry = FunctionRegistry.createDefault();
+	private final Map<String, UserFunction> userFunctions = new HashMap<>();
 	private SuffixOperatorResolver suffixResolver = defaultSuffixResolver;
 	private ConstantsResolver constantsResolver = defaultConstantsResolver;
 	private char decimalSeparator = DecimalFormatSymbols.getInstance(Locale.ROOT).getDecimalSeparator();
@@ -80,11 +95,11 @@ public class Calculator {
 		@Override
 		public @NotNull BigDecimal calculate(char operator, BigDecimal a, BigDecimal b) {
 			if (operator == '+')
-				return a.add(b);
+				return MathUtils.add(a, b);
 			if (operator == '-')
-				return a.subtract(b);
+				return MathUtils.subtract(a, b);
 			if (operator == '*')
-				return a.multiply(b);
+				return MathUtils.multiply(a, b);
 			if (operator == '/') {
 				if (b.signum() == 0)
 					throw new CalculationException(CalculationException.DIVISION_BY_ZERO);
@@ -98,7 +113,7 @@ public class Calculator {
 
 		@Override
 		public @NotNull BigDecimal calculatePercent(char binaryOperator, BigDecimal a, BigDecimal percent) {
-			BigDecimal percentOfNum = a.multiply(percent); // percent already divided by zero
+			BigDecimal percentOfNum = MathUtils.multiply(a, percent); // percent already divided by zero
 			if (binaryOperator == '+')
 				return a.add(percentOfNum);
 			else if (binaryOperator == '-')
@@ -119,118 +134,66 @@ public class Calculator {
 		switch (constantName) {
 			case "pi":
 			case PI_SIGN:
-				return NumberList.of(MathUtils.PI);
+				return NumberList.of(MathUtils.pi());
 			case "fi":
 			case FI_SIGN:
-				return NumberList.of(MathUtils.FI);
+				return NumberList.of(MathUtils.phi());
 			case E_SIGN:
-				return NumberList.of(MathUtils.E);
+				return NumberList.of(MathUtils.e());
 			default:
 				return null;
 		}
 	};
 
+	private static final FunctionRegistry defaultFunctionRegistry = FunctionRegistry.createDefault();
+
+	/**
+	 * Resolves functions by name with built-in functions registry
+	 */
 	public static final FunctionsResolver defaultFunctionsResolver = (funcName, suffix, operand) -> {
-		if (suffix == null && operand == null) {
-			throw new CalculationException(CalculationException.FUNCTION_SUFFIX_AND_OPERAND_NULL);
-		}
-		BigDecimal notNullNum = suffix == null ? operand : suffix;
-		switch (funcName) {
-			case "log":
-				if (suffix != null) {
-					if (operand != null)
-						return MathUtils.logWithBase(operand, suffix);
-					else
-						return MathUtils.log(suffix);
-				} else {
-					return MathUtils.log(operand);
-				}
-			case "cos":
-				return MathUtils.cos(notNullNum);
-			case "arccos":
-			case "acos":
-				return MathUtils.arccos(notNullNum);
-			case "sin":
-				return MathUtils.sin(notNullNum);
-			case "arcsin":
-			case "asin":
-				return MathUtils.arcsin(notNullNum);
-			case "tan":
-			case "tg":
-				return MathUtils.tan(notNullNum);
-			case "arctan":
-			case "arctg":
-			case "atan":
-			case "atg":
-				return MathUtils.arctan(notNullNum);
-			case "ctg":
-			case "cot":
-				return MathUtils.cot(notNullNum);
-			case "arccot":
-			case "arcctg":
-			case "acot":
-			case "actg":
-				return MathUtils.arccot(notNullNum);
-			case "ln":
-				return MathUtils.ln(notNullNum);
-			case "sqrt":
-				if(suffix != null && operand != null){
-					return MathUtils.rootWithBase(operand, suffix);
-				}
-				return MathUtils.rootWithBase(notNullNum, BigDecimal.valueOf(2));
-			case "abs":
-				return MathUtils.abs(notNullNum);
-			case "sec":
-				return MathUtils.sec(notNullNum);
-			case "csc":
-				return MathUtils.csc(notNullNum);
-			case "arccsc":
-			case "acsc":
-				return MathUtils.arccsc(notNullNum);
-			case "arcsec":
-			case "asec":
-				return MathUtils.arcsec(notNullNum);
-			default:
-				return null;
-		}
+		FunctionHandle handle = defaultFunctionRegistry.get(funcName);
+		if (handle == null)
+			return null;
+		return handle.apply(suffix, operand);
 	};
 
+	/**
+	 * Resolves functions of lists by name with built-in functions registry
+	 */
 	public static final ListFunctionsResolver defaultListFunctionResolver = (funcName, suffix, list) -> {
-		NumberList inlinedList = inlineElementsInList(list);
-		BigDecimal[] decimals = inlinedList.getResults().stream()
-				.filter(Number.class::isInstance)
-				.map(b -> ((Number) b).get())
-				.toArray(BigDecimal[]::new);
-
-		switch (funcName) {
-			case "A": {
-				BigDecimal sum = BigDecimal.ZERO;
-				for (var d : decimals)
-					sum = sum.add(d);
-				return NumberList.of(sum.divide(BigDecimal.valueOf(decimals.length), roundScale, RoundingMode.HALF_EVEN));
-			}
-			case "gcd": {
-				return NumberList.of(MathUtils.gcd(decimals));
-			}
-			case "lcm": {
-				return NumberList.of(MathUtils.lcm(decimals));
-			}
-			case "sum": {
-				BigDecimal sum = BigDecimal.ZERO;
-				for (var d : decimals)
-					sum = sum.add(d);
-				return NumberList.of(sum);
-			}
-			default: {
-				return resolveList(list, b -> {
-					BigDecimal res = defaultFunctionsResolver.resolve(funcName, suffix, b);
-					if(res == null)
-						throw new CalculationException(CalculationException.UNKNOWN_FUNCTION, funcName);
-					return res;
-				});
+		FunctionHandle handle = defaultFunctionRegistry.get(funcName);
+		if (handle == null)
+			return null;
+		return applyToList(handle, suffix, list);
+	};
+
+	/**
+	 * Aggregates receive all elements of list (nested lists are inlined),
+	 * other functions are applied to every element
+	 */
+	private static NumberList applyToList(FunctionHandle handle, BigDecimal suffix, NumberList list) {
+		if (handle.isReduction() && list instanceof LazyNumberList)
+			return NumberList.of(handle.reduce((LazyNumberList) list));
+		if (handle.getListBehavior() == FunctionHandle.ListBehavior.AGGREGATE) {
+			BigDecimal[] decimals = inlineElementsInList(list).getResults().stream()
+					.filter(Number.class::isInstance)
+					.map(b -> ((Number) b).get())
+					.toArray(BigDecimal[]::new);
+			return NumberList.of(handle.aggregate(suffix, decimals));
+		}
+		if (handle.getListBehavior() == FunctionHandle.ListBehavior.ARGUMENTS) {
+			List<BaseResult> results = list.getResults();
+			BigDecimal[] arguments = new BigDecimal[results.size()];
+			for (int i = 0; i < arguments.length; i++) {
+				BaseResult argument = results.get(i);
+				if (!(argument instanceof Number))
+					throw new CalculationException(CalculationException.FUNCTIONS_OPERANDS_CANNOT_BE_LISTS, handle.getName());
+				arguments[i] = ((Number) argument).get();
 			}
+			return NumberList.of(handle.applyToArguments(arguments));
 		}
-	};
+		return resolveList(list, b -> handle.apply(suffix, b));
+	}
 
 	private static NumberList inlineElementsInList(NumberList l) {
 		ArrayList<BaseResult> results = new ArrayList<>();
@@ -249,7 +212,9 @@ public class Calculator {
 	}
 
 	private static NumberList resolveList(NumberList r, ApplierForEachElement applier) {
-		if (r.isSingleNumber()) {
+		if (r instanceof LazyNumberList) {
+			return ((LazyNumberList) r).map(applier::apply);
+		} else if (r.isSingleNumber()) {
 			return NumberList.of(applier.apply(r.getSingleNumberIfTrue()));
 		} else {
 			ArrayList<BaseResult> resultsList = new ArrayList<>();
@@ -288,12 +253,12 @@ public class Calculator {
 			case DEGREE_SIGN:
 				BigDecimal degrees = operand;
 				for(int i = 0; i < count; i++)
-					degrees = AngleUnit.degrees(degrees).toRadians();
+					degrees = MathUtils.convertAngle(degrees, AngleMode.DEGREES, EvaluationContext.currentAngleMode());
 				return degrees;
 			case GRAD_SIGN:
 				BigDecimal grads = operand;
 				for(int i = 0; i < count; i++)
-					grads = AngleUnit.gradians(grads).toRadians();
+					grads = MathUtils.convertAngle(grads, AngleMode.GRADIANS, EvaluationContext.currentAngleMode());
 				return grads;
 		}
 		throw new CalculationException(CalculationException.UNKNOWN_SUFFIX_OPERATOR);
@@ -301,10 +266,10 @@ public class Calculator {
 
 	public Calculator() {
 		builder = new TreeBuilder();
+		builder.setFunctionRegistry(functionRegistry);
 
 		expressionFormatter = new CalculatorExpressionFormatter();
-		expressionFormatter.setBracketsTypes(TreeBuilder.defaultBrackets);
-		expressionFormatter.setSuffixOperators(TreeBuilder.defaultSuffixOperators);
+		expressionFormatter.setGrammar(builder.getGrammar());
 
 		expressionTokenizer = new CalculatorExpressionTokenizer();
 		expressionTokenizer.setReplacementMap(defaultReplacementMap);
@@ -315,7 +280,7 @@ public class Calculator {
 	 **/
 	public void setBracketsTypes(List<BracketsType> brackets) {
 		builder.setBracketsTypes(brackets);
-		expressionFormatter.setBracketsTypes(brackets);
+		expressionFormatter.setGrammar(builder.getGrammar());
 	}
 
 	/**t
@@ -323,6 +288,7 @@ public class Calculator {
 	 **/
 	public void setBinaryOperators(List<BinaryOperator> operators) {
 		builder.setBinaryOperators(operators);
+		expressionFormatter.setGrammar(builder.getGrammar());
 	}
 
 	/**
@@ -330,7 +296,15 @@ public class Calculator {
 	 **/
 	public void setSuffixOperators(List<SuffixOperator> operators) {
 		builder.setSuffixOperators(operators);
-		expressionFormatter.setSuffixOperators(operators);
+		expressionFormatter.setGrammar(builder.getGrammar());
+	}
+
+	/**
+	 * Sets precompiled grammar for TreeBuilder and expression formatter
+	 */
+	public void setGrammar(Grammar grammar) {
+		builder.setGrammar(grammar);
+		expressionFormatter.setGrammar(grammar);
 	}
 
 	/**
@@ -348,17 +322,164 @@ public class Calculator {
 	}
 
 	/**
-	 * Sets custom functions resolver
+	 * Sets custom functions resolver.<br>
+	 * While custom resolver is set, functions are resolved by name during evaluation:
+	 * resolver is asked first and {@link #getFunctionRegistry() registry} is used if resolver returns {@code null}.
 	 */
 	public void setFunctionsResolver(FunctionsResolver functionsResolver) {
 		this.functionsResolver = functionsResolver;
+		updateFunctionsBinding();
 	}
 
 	/**
 	 * Sets custom functions resolver for lists
+	 *
+	 * @see #setFunctionsResolver(FunctionsResolver)
 	 */
 	public void setListFunctionsResolver(ListFunctionsResolver listFunctionsResolver) {
 		this.listFunctionsResolver = listFunctionsResolver;
+		updateFunctionsBinding();
+	}
+
+	/**
+	 * Functions are bound to registry at parse time only if no custom resolver may override them
+	 */
+	private void updateFunctionsBinding() {
+		boolean defaultResolvers = functionsResolver == defaultFunctionsResolver && listFunctionsResolver == defaultListFunctionResolver;
+		builder.setFunctionRegistry(defaultResolvers ? functionRegistry : null);
+	}
+
+	/**
+	 * @return Registry of functions of this calculator. Functions registered in it are available in expressions.
+	 */
+	public FunctionRegistry getFunctionRegistry() {
+		return functionRegistry;
+	}
+
+	/**
+	 * Same as {@link #defineFunction(String, boolean)} without memoization
+	 */
+	public void defineFunction(String definition) {
+		defineFunction(definition, false);
+	}
+
+	/**
+	 * Defines function with expression, e.g. "f(x;y)=x^2+y". Function is registered in {@link #getFunctionRegistry()}
+	 * and can be called like built-in ones. Body is parsed once, here.<br>
+	 * Parameters may be numbers, then definition is used only when arguments are equal to them.
+	 * So recursive functions can be defined with several definitions, e.g. "fib(0)=0", "fib(1)=1" and "fib(n)=fib(n-1)+fib(n-2)".
+	 * Definition with the same numeric parameters replaces previous one.
+	 *
+	 * @param memoize If {@code true} and function calls only pure functions,
+	 *                its results are cached in bounded table, so each recursive call is evaluated once
+	 * @throws CalculationException {@link CalculationException#INVALID_FUNCTION_DEFINITION} if definition is malformed
+	 *                              or body is empty, or error of parsing if body cannot be parsed,
+	 *                              e.g. {@link CalculationException#UNKNOWN_FUNCTION}.
+	 *                              Registry is not changed in these cases.
+	 */
+	public void defineFunction(String definition, boolean memoize) {
+		int equalsIndex = definition.indexOf('=');
+		if (equalsIndex == -1)
+			throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, "no '=' in definition");
+		String head = definition.substring(0, equalsIndex).replaceAll("\\s+", "");
+		String bodyExpression = definition.substring(equalsIndex + 1);
+
+		int openBracket = head.indexOf('(');
+		if (openBracket <= 0 || !head.endsWith(")"))
+			throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, head);
+		String name = head.substring(0, openBracket);
+		if (!isName(name))
+			throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, "invalid name " + name);
+		String[] parts = head.substring(openBracket + 1, head.length() - 1).split(";", -1);
+		String[] parameters = new String[parts.length];
+		BigDecimal[] literals = new BigDecimal[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			String part = parts[i];
+			if (isName(part)) {
+				for (int j = 0; j < i; j++)
+					if (part.equals(parameters[j]))
+						throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, "duplicate parameter " + part);
+				parameters[i] = part;
+			} else {
+				boolean negative = part.startsWith("-");
+				String number = negative ? part.substring(1) : part;
+				if (!isPlainNumber(number))
+					throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, "invalid parameter " + part);
+				literals[i] = negative ? new BigDecimal(number).negate() : new BigDecimal(number);
+			}
+		}
+
+		UserFunction function = userFunctions.get(name);
+		if (function != null && function.getArity() != parts.length)
+			throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION,
+					name + " already has " + function.getArity() + " parameters");
+		boolean isNew = function == null;
+		if (isNew)
+			function = new UserFunction(name, parts.length, this);
+		FunctionHandle previousHandle = functionRegistry.get(name);
+		// function is registered before body is parsed, so body can call it recursively
+		if (isNew)
+			functionRegistry.register(function.createHandle(true, FunctionHandle.CostHint.LINEAR));
+		TreeNode body;
+		try {
+			body = builder.buildTree(formatExpression(bodyExpression));
+			if (body == null)
+				throw new CalculationException(CalculationException.INVALID_FUNCTION_DEFINITION, "empty body");
+		} catch (RuntimeException e) {
+			if (previousHandle != null)
+				functionRegistry.register(previousHandle);
+			else
+				functionRegistry.unregister(name);
+			throw e;
+		}
+		function.define(new UserFunction.Definition(parameters, literals, body));
+		userFunctions.put(name, function);
+
+		boolean pure = true;
+		boolean transcendental = false;
+		for (UserFunction.Definition d : function.getDefinitions()) {
+			pure &= callsOnlyPureFunctions(d.body, name);
+			transcendental |= new CostEstimator(MathUtils.getHighRoundScale(), functionRegistry).estimate(d.body).getTranscendentalCalls() > 0;
+		}
+		function.setMemoized(pure && (memoize || function.isMemoized()));
+		functionRegistry.register(function.createHandle(pure,
+				transcendental ? FunctionHandle.CostHint.TRANSCENDENTAL : FunctionHandle.CostHint.LINEAR));
+		// results of other functions may depend on this one
+		for (UserFunction f : userFunctions.values())
+			f.clearMemo();
+	}
+
+	private static boolean isName(String s) {
+		if (s.isEmpty())
+			return false;
+		for (int i = 0; i < s.length(); i++)
+			if (!CalculatorUtils.isLetter(s.charAt(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Functions which are not bound to handles may be resolved by custom resolvers, so they are not considered pure
+	 */
+	private boolean callsOnlyPureFunctions(TreeNode node, String self) {
+		if (node == null)
+			return true;
+		if (node instanceof FunctionNode) {
+			FunctionNode functionNode = (FunctionNode) node;
+			FunctionHandle handle = functionNode.getHandle();
+			if (!functionNode.getFunctionName().equals(self) && (handle == null || !handle.isPure()))
+				return false;
+			if (!callsOnlyPureFunctions(functionNode.getSuffixNode(), self))
+				return false;
+		}
+		if (node instanceof ListNode) {
+			for (TreeNode child : ((ListNode) node).getNodes())
+				if (!callsOnlyPureFunctions(child, self))
+					return false;
+		}
+		if (node instanceof OperatorNode && !callsOnlyPureFunctions(((OperatorNode) node).getSecondChild(), self))
+			return false;
+		return callsOnlyPureFunctions(node.getFirstChild(), self);
 	}
 
 	/**
@@ -383,6 +504,10 @@ public class Calculator {
 		this.groupingSeparator = groupingSeparator;
 	}
 
+	public static int getRoundScale() {
+		return roundScale;
+	}
+
 	public static void setRoundScale(int roundScale) {
 		if(roundScale <= 0)
 			throw new IllegalArgumentException("Round scale must be greater than 0");
@@ -390,6 +515,35 @@ public class Calculator {
 		MathUtils.setHighRoundScale(roundScale + 6);
 	}
 
+	/**
+	 * Sets maximum number of digits which any intermediate result may have.
+	 * Operations which are expected to exceed it (e.g. huge powers or factorials) fail
+	 * with {@link CalculationException#DIGIT_LIMIT_EXCEEDED} before they start.
+	 */
+	public void setDigitLimit(int digitLimit) {
+		if (digitLimit <= 0)
+			throw new IllegalArgumentException("Digit limit must be greater than 0");
+		this.digitLimit = digitLimit;
+	}
+
+	public int getDigitLimit() {
+		return digitLimit;
+	}
+
+	/**
+	 * Sets units in which trigonometric functions take arguments and inverse ones return results.
+	 * Suffixes of degrees and gradians convert their operands to this mode. Default is {@link AngleMode#RADIANS}.
+	 */
+	public void setAngleMode(AngleMode angleMode) {
+		if (angleMode == null)
+			throw new IllegalArgumentException("Angle mode cannot be null");
+		this.angleMode = angleMode;
+	}
+
+	public AngleMode getAngleMode() {
+		return angleMode;
+	}
+
 	/**
 	 * Sets custom constants resolver
 	 */
@@ -413,9 +567,178 @@ public class Calculator {
 	 * Calculates answer of expression
 	 */
 	public NumberList calculate(String expression) {
-		TreeNode head = builder.buildTree(formatExpression(expression));
-		NumberList r = calc(head);
-		return formatAnswer(r);
+		return calculate(expression, null);
+	}
+
+	/**
+	 * Calculates answer of expression.
+	 *
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 */
+	public NumberList calculate(String expression, CancellationToken cancellationToken) {
+		return calculate(expression, Map.of(), cancellationToken);
+	}
+
+	/**
+	 * Calculates answer of expression with variables, e.g. "sum(x)/n" with list bound to "x".
+	 * Lists created from arrays or buffers ({@link NumberList#of(double[])}, {@link NumberList#ofPackedDoubles(java.nio.ByteBuffer)})
+	 * are consumed without being formatted into expression and parsed.<br>
+	 * Variables shadow constants with the same names. They are not visible in bodies of user-defined functions.
+	 *
+	 * @param variables         Values of variables by names
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 */
+	public NumberList calculate(String expression, Map<String, NumberList> variables, CancellationToken cancellationToken) {
+		EvaluationContext previous = EvaluationContext.enter(createContext(cancellationToken, variables));
+		try {
+			TreeNode head = builder.buildTree(formatExpression(expression));
+			return formatAnswer(calc(head));
+		} finally {
+			EvaluationContext.restore(previous);
+		}
+	}
+
+	/**
+	 * Parses expression once, so it can be evaluated many times without parsing
+	 *
+	 * @throws CalculationException if expression cannot be parsed
+	 */
+	public CompiledExpression compile(String expression) {
+		return new CompiledExpression(this, expression, builder.buildTree(formatExpression(expression)));
+	}
+
+	NumberList evaluate(TreeNode head, Map<String, NumberList> variables, CancellationToken cancellationToken) {
+		EvaluationContext previous = EvaluationContext.enter(createContext(cancellationToken, variables));
+		try {
+			return formatAnswer(calc(head));
+		} finally {
+			EvaluationContext.restore(previous);
+		}
+	}
+
+	/**
+	 * Evaluates node in context which is already installed
+	 */
+	NumberList evaluateNode(TreeNode node) {
+		return calc(node);
+	}
+
+	private final Evaluator evaluator = new Evaluator() {
+		@Override
+		public NumberList evaluate(TreeNode node) {
+			return calc(node);
+		}
+
+		@Override
+		public NumberList evaluate(TreeNode node, Map<String, NumberList> variables) {
+			EvaluationContext context = EvaluationContext.current();
+			if (context == null) {
+				EvaluationContext previous = EvaluationContext.enter(createContext(null));
+				try {
+					return evaluate(node, variables);
+				} finally {
+					EvaluationContext.restore(previous);
+				}
+			}
+			Map<String, NumberList> callerVariables = context.enterCall(variables);
+			try {
+				return calc(node);
+			} finally {
+				context.exitCall(callerVariables);
+			}
+		}
+
+		@Override
+		public void evaluateBatch(TreeNode node, String variable, double[] values, double[] out) {
+			EvaluationContext context = EvaluationContext.current();
+			ColumnEvaluator columnEvaluator = new ColumnEvaluator(Calculator.this, node, Map.of(variable, values),
+					context == null ? createContext(null) : context);
+			columnEvaluator.evaluate(out);
+			CalculationException error = columnEvaluator.getFirstError();
+			if (error != null)
+				throw error;
+		}
+
+		@Override
+		public Map<String, NumberList> getVariables() {
+			EvaluationContext context = EvaluationContext.current();
+			return context == null ? Map.of() : context.getVariables();
+		}
+	};
+
+	/**
+	 * Evaluates expression and its partial derivatives by given variables in one pass.
+	 * Value is rounded as result of {@link #calculate(String)}, derivatives are not rounded.
+	 */
+	Derivatives differentiate(TreeNode head, List<String> directions, Map<String, NumberList> variables,
+	                          CancellationToken cancellationToken) {
+		EvaluationContext previous = EvaluationContext.enter(createContext(cancellationToken, variables));
+		try {
+			DualEvaluator.Dual dual = new DualEvaluator(this, directions).evaluate(head);
+			Map<String, BigDecimal> partials = new LinkedHashMap<>();
+			for (int i = 0; i < directions.size(); i++)
+				partials.put(directions.get(i), dual.partials[i]);
+			return new Derivatives(formatNumber(dual.value), Collections.unmodifiableMap(partials));
+		} finally {
+			EvaluationContext.restore(previous);
+		}
+	}
+
+	/**
+	 * @return Whether operators, brackets and functions are resolved by default resolvers,
+	 * so they can be evaluated in {@code double} arithmetic
+	 */
+	boolean usesDefaultResolvers() {
+		return resolver == defaultResolver && bracketsResolver == defaultBracketsResolver && suffixResolver == defaultSuffixResolver
+				&& functionsResolver == defaultFunctionsResolver && listFunctionsResolver == defaultListFunctionResolver;
+	}
+
+	EvaluationContext createContext(CancellationToken cancellationToken) {
+		return new EvaluationContext(cancellationToken, digitLimit, angleMode);
+	}
+
+	private EvaluationContext createContext(CancellationToken cancellationToken, Map<String, NumberList> variables) {
+		EvaluationContext context = createContext(cancellationToken);
+		context.setVariables(variables);
+		return context;
+	}
+
+	/**
+	 * Estimates how expensive evaluation of expression is without evaluating it.
+	 * Only expression is parsed, so this method is cheap and can be used to reject or throttle heavy expressions.
+	 *
+	 * @throws CalculationException if expression cannot be parsed
+	 */
+	public CostEstimate estimateCost(String expression) {
+		return estimateCost(builder.buildTree(formatExpression(expression)));
+	}
+
+	CostEstimate estimateCost(TreeNode head) {
+		return new CostEstimator(MathUtils.getHighRoundScale(), functionRegistry).estimate(head);
+	}
+
+	/**
+	 * Calculates answer of expression without throwing {@link CalculationException}.<br>
+	 * Exceptions created during this call do not capture stack traces,
+	 * so invalid input costs about the same as valid one.
+	 */
+	public CalculationResult tryCalculate(String expression) {
+		return tryCalculate(expression, null);
+	}
+
+	/**
+	 * Same as {@link #tryCalculate(String)}, but evaluation can be cancelled with given token
+	 */
+	public CalculationResult tryCalculate(String expression, CancellationToken cancellationToken) {
+		boolean stackTraceEnabled = CalculationException.isStackTraceEnabled();
+		CalculationException.setStackTraceEnabled(false);
+		try {
+			return CalculationResult.success(calculate(expression, cancellationToken));
+		} catch (CalculationException e) {
+			return CalculationResult.failure(e.getErrorCode(), e.getMessage(), e.getPosition());
+		} finally {
+			CalculationException.setStackTraceEnabled(stackTraceEnabled);
+		}
 	}
 
 	private NumberList formatAnswer(NumberList r) {
@@ -424,17 +747,24 @@ public class Calculator {
 			if (b instanceof NumberList) {
 				n.add(formatAnswer((NumberList) b));
 			} else if (b instanceof Number) {
-				BigDecimal a = ((Number) b).get();
-				a = CalculatorUtils.removeZeros(a);
-				if (a.scale() > roundScale)
-					a = a.setScale(roundScale, RoundingMode.HALF_EVEN);
-				n.add(new Number(a));
+				n.add(new Number(formatNumber(((Number) b).get())));
 			}
 		}
 		return new NumberList(n);
 	}
 
+	private static BigDecimal formatNumber(BigDecimal a) {
+		// normalising huge numbers takes time too
+		EvaluationContext.checkCancelled();
+		a = CalculatorUtils.removeZeros(a);
+		if (a.scale() > roundScale)
+			a = a.setScale(roundScale, RoundingMode.HALF_EVEN);
+		return a;
+	}
+
 	private BigDecimal parseDecimal(String source) {
+		if (!isPlainNumber(source))
+			throw new CalculationException(CalculationException.NUMBER_FORMAT_EXCEPTION, source);
 		try {
 			return new BigDecimal(source);
 		} catch (NumberFormatException e) {
@@ -442,7 +772,28 @@ public class Calculator {
 		}
 	}
 
+	/**
+	 * Checks that string consists of digits and at most one dot,
+	 * so invalid numbers are rejected without throwing {@link NumberFormatException}
+	 */
+	private static boolean isPlainNumber(String source) {
+		boolean hasDigit = false;
+		boolean hasDot = false;
+		for (int i = 0; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if (CalculatorUtils.isDigit(c)) {
+				hasDigit = true;
+			} else if (c == '.' && !hasDot) {
+				hasDot = true;
+			} else {
+				return false;
+			}
+		}
+		return hasDigit;
+	}
+
 	private NumberList calc(TreeNode node) {
+		EvaluationContext.checkCancelled();
 		if (node instanceof BracketsNode) {
 			NumberList r = calc(node.getFirstChild());
 			int type = ((BracketsNode) node).getType();
@@ -480,6 +831,12 @@ public class Calculator {
 	}
 
 	protected NumberList resolveConstant(ConstantNode node){
+		EvaluationContext context = EvaluationContext.current();
+		if (context != null) {
+			NumberList variable = context.getVariable(node.getName());
+			if (variable != null)
+				return variable;
+		}
 		NumberList resolved = constantsResolver.resolveConstant(node.getName());
 		if(resolved == null)
 			throw new CalculationException(CalculationException.UNKNOWN_CONSTANT, node.getName());
@@ -500,55 +857,138 @@ public class Calculator {
 
 		NumberList r1 = calc(node.getFirstChild());
 		NumberList r2 = calc(node.getSecondChild());
-		if (!r1.isSingleNumber() && !r2.isSingleNumber())
-			throw new CalculationException(CalculationException.BINARY_OPERATOR_CANNOT_BE_APPLIED_TO_LISTS);
 
 		TreeNode rightNode = node.getSecondChild();
+		BinaryApplier applier = (a, b) -> resolver.calculate(symbol, a, b);
 		if (rightNode instanceof SuffixOperatorNode) {
 			SuffixOperatorNode suffix = (SuffixOperatorNode) rightNode;
 			if (suffix.getOperator().getSymbol().equals("%")) {
-				if (r1.isSingleNumber()) { // 10-(25;50;100)%
-					BigDecimal rb = r1.getSingleNumberIfTrue();
-					return resolveList(r2, a -> resolver.calculatePercent(symbol, rb, a));
-				} else { // (100;50)-50%
-					BigDecimal rb = r2.getSingleNumberIfTrue();
-					return resolveList(r1, a -> resolver.calculatePercent(symbol, a, rb));
-				}
+				// 10-(25;50;100)%, (100;50)-50% or (100;50)-(10;20)%
+				applier = (a, b) -> resolver.calculatePercent(symbol, a, b);
 			}
 		}
+		return combine(r1, r2, applier);
+	}
 
-		if (r1.isSingleNumber()) {
-			BigDecimal b = r1.getSingleNumberIfTrue();
-			return resolveList(r2, a -> resolver.calculate(symbol, b, a));
-		} else {
-			BigDecimal b = r2.getSingleNumberIfTrue();
-			return resolveList(r1, a -> resolver.calculate(symbol, a, b));
+	private interface BinaryApplier {
+		BigDecimal apply(BigDecimal a, BigDecimal b);
+	}
+
+	/**
+	 * Applies operator to lists. Single number is applied to every element of other list,
+	 * lists of equal sizes are combined element by element (recursively for nested lists).
+	 * Flat lists are combined in one loop, which runs in parallel chunks for long lists.
+	 * If any of lists is lazy, result is lazy too.
+	 *
+	 * @throws CalculationException {@link CalculationException#LISTS_SIZES_MISMATCH} if lists have different sizes
+	 */
+	private static NumberList combine(NumberList left, NumberList right, BinaryApplier applier) {
+		if (left.isSingleNumber()) {
+			BigDecimal a = left.getSingleNumberIfTrue();
+			return resolveList(right, b -> applier.apply(a, b));
+		}
+		if (right.isSingleNumber()) {
+			BigDecimal b = right.getSingleNumberIfTrue();
+			return resolveList(left, a -> applier.apply(a, b));
+		}
+		int size = left.size();
+		if (size != right.size())
+			throw new CalculationException(CalculationException.LISTS_SIZES_MISMATCH, size + " and " + right.size());
+		boolean lazy = left instanceof LazyNumberList || right instanceof LazyNumberList;
+		LazyNumberList.Generator leftNumbers = numbers(left);
+		LazyNumberList.Generator rightNumbers = numbers(right);
+		if (leftNumbers != null && rightNumbers != null) {
+			LazyNumberList result = new LazyNumberList(size, i -> applier.apply(leftNumbers.get(i), rightNumbers.get(i)));
+			return lazy ? result : result.materialize();
 		}
+		List<BaseResult> leftResults = left.getResults();
+		List<BaseResult> rightResults = right.getResults();
+		ArrayList<BaseResult> results = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			NumberList r = combine(asList(leftResults.get(i)), asList(rightResults.get(i)), applier);
+			results.add(r.isSingleNumber() ? new Number(r.getSingleNumberIfTrue()) : r);
+		}
+		return new NumberList(results);
+	}
+
+	/**
+	 * @return Accessor of elements of list or {@code null} if list contains nested lists
+	 */
+	private static LazyNumberList.Generator numbers(NumberList list) {
+		if (list instanceof LazyNumberList)
+			return ((LazyNumberList) list)::getNumber;
+		List<BaseResult> results = list.getResults();
+		for (BaseResult result : results)
+			if (!(result instanceof Number))
+				return null;
+		return i -> ((Number) results.get(i)).get();
+	}
+
+	private static NumberList asList(BaseResult result) {
+		if (result instanceof Number)
+			return NumberList.of(((Number) result).get());
+		return (NumberList) result;
 	}
 
 	protected NumberList processFunction(FunctionNode functionNode) {
+		FunctionHandle handle = functionNode.getHandle();
+		if (handle == null) {
+			// special forms cannot be resolved by custom resolvers, because they need unevaluated arguments
+			FunctionHandle registered = functionRegistry.get(functionNode.getFunctionName());
+			if (registered != null && registered.isSpecialForm())
+				handle = registered;
+		}
+		if (handle != null && handle.isSpecialForm())
+			return handle.applySpecialForm(evaluator, getArgumentNodes(functionNode));
 		NumberList r = null;
 		if (functionNode.getFirstChild() != null) {
 			r = calc(functionNode.getFirstChild());
 		}
-		if (r == null) {
-			return NumberList.of(resolveSingleArgumentList(functionNode, null));
-		} else if (r.isSingleNumber()) {
-			return NumberList.of(resolveSingleArgumentList(functionNode, r.getSingleNumberIfTrue()));
-		}
 		BigDecimal suffix = resolveFunctionSuffix(functionNode);
-		NumberList resolved = listFunctionsResolver.resolve(functionNode.getFunctionName(), suffix, r);
-		if(resolved == null)
-			throw new CalculationException(CalculationException.UNKNOWN_FUNCTION);
-		return resolved;
+		if (handle == null)
+			return resolveFunctionByName(functionNode.getFunctionName(), suffix, r);
+		return applyHandle(handle, suffix, r);
 	}
 
-	private BigDecimal resolveSingleArgumentList(FunctionNode functionNode, BigDecimal argument){
-		BigDecimal suffix = resolveFunctionSuffix(functionNode);
-		BigDecimal bigDecimal = functionsResolver.resolve(functionNode.getFunctionName(), suffix, argument);
-		if(bigDecimal == null)
+	/**
+	 * @return Elements of list in brackets of function or its only argument
+	 */
+	static List<TreeNode> getArgumentNodes(FunctionNode functionNode) {
+		TreeNode child = functionNode.getFirstChild();
+		if (child instanceof BracketsNode && ((BracketsNode) child).getType() == 1)
+			child = child.getFirstChild();
+		if (child == null)
+			return List.of();
+		if (child instanceof ListNode)
+			return ((ListNode) child).getNodes();
+		return List.of(child);
+	}
+
+	private static NumberList applyHandle(FunctionHandle handle, BigDecimal suffix, NumberList r) {
+		if (r == null)
+			return NumberList.of(handle.apply(suffix, null));
+		if (r.isSingleNumber())
+			return NumberList.of(handle.apply(suffix, r.getSingleNumberIfTrue()));
+		return applyToList(handle, suffix, r);
+	}
+
+	/**
+	 * Resolves function which was not bound at parse time: with resolvers first, then with registry
+	 */
+	private NumberList resolveFunctionByName(String name, BigDecimal suffix, NumberList r) {
+		if (r == null || r.isSingleNumber()) {
+			BigDecimal bigDecimal = functionsResolver.resolve(name, suffix, r == null ? null : r.getSingleNumberIfTrue());
+			if (bigDecimal != null)
+				return NumberList.of(bigDecimal);
+		} else {
+			NumberList resolved = listFunctionsResolver.resolve(name, suffix, r);
+			if (resolved != null)
+				return resolved;
+		}
+		FunctionHandle handle = functionRegistry.get(name);
+		if (handle == null)
 			throw new CalculationException(CalculationException.UNKNOWN_FUNCTION);
-		return bigDecimal;
+		return applyHandle(handle, suffix, r);
 	}
 
 	private BigDecimal resolveFunctionSuffix(FunctionNode functionNode){
@@ -19,6 +19,7 @@ package com.maxsavteam.calculator;
 
 import com.maxsavteam.calculator.exceptions.CalculationException;
 import com.maxsavteam.calculator.tree.BracketsType;
+import com.maxsavteam.calculator.tree.Grammar;
 import com.maxsavteam.calculator.tree.SuffixOperator;
 import com.maxsavteam.calculator.tree.TreeBuilder;
 import com.maxsavteam.calculator.utils.CalculatorUtils;
@@ -30,8 +31,7 @@ public class CalculatorExpressionFormatter {
 
 	public static final Parameters defaultParameters = new Parameters.Builder().build();
 
-	private List<BracketsType> bracketsTypes = TreeBuilder.defaultBrackets;
-	private List<SuffixOperator> suffixOperators = TreeBuilder.defaultSuffixOperators;
+	private Grammar grammar = TreeBuilder.defaultGrammar;
 	private final Parameters parameters;
 	private char decimalSeparator = '.';
 	private char groupingSeparator = ',';
@@ -45,11 +45,18 @@ public class CalculatorExpressionFormatter {
 	}
 
 	public void setBracketsTypes(List<BracketsType> bracketsTypes) {
-		this.bracketsTypes = bracketsTypes;
+		grammar = grammar.withBrackets(bracketsTypes);
 	}
 
 	public void setSuffixOperators(List<SuffixOperator> suffixOperators) {
-		this.suffixOperators = suffixOperators;
+		grammar = grammar.withSuffixOperators(suffixOperators);
+	}
+
+	/**
+	 * Sets precompiled grammar. Usually it is the same grammar as {@link TreeBuilder} uses.
+	 */
+	public void setGrammar(Grammar grammar) {
+		this.grammar = grammar;
 	}
 
 	public void setDecimalSeparator(char decimalSeparator) {
@@ -71,17 +78,15 @@ public class CalculatorExpressionFormatter {
 
 		for (int i = 0; i < expression.length(); i++) {
 			char c = expression.charAt(i);
-			int type = findOpenBracket(c);
+			int type = grammar.getOpenBracketType(c);
 			boolean isOpenBracket = type != -1;
 			if (isOpenBracket) {
 				typesStack.push(type);
 			} else {
-				type = findCloseBracket(c);
+				type = grammar.getCloseBracketType(c);
 				if (type != -1) {
-					if (typesStack.isEmpty())
-						throw new CalculationException(CalculationException.INVALID_BRACKETS_SEQUENCE);
-					if (typesStack.peek() != type)
-						throw new CalculationException(CalculationException.INVALID_BRACKETS_SEQUENCE);
+					if (typesStack.isEmpty() || typesStack.peek() != type)
+						throw new CalculationException(CalculationException.INVALID_BRACKETS_SEQUENCE, null, i);
 					else
 						typesStack.pop();
 				}
@@ -89,10 +94,7 @@ public class CalculatorExpressionFormatter {
 		}
 		while (!typesStack.isEmpty()) {
 			int type = typesStack.pop();
-			for (BracketsType bracketsType : bracketsTypes) {
-				if (bracketsType.type == type)
-					sbResult.append(bracketsType.closeBracket);
-			}
+			sbResult.append(grammar.getCloseBrackets(type));
 		}
 		return sbResult.toString();
 	}
@@ -105,8 +107,7 @@ public class CalculatorExpressionFormatter {
 		StringBuilder sb = new StringBuilder();
 		boolean isFunctionStarted = false;
 		for (int i = 0; i < expression.length(); i++) {
-			String current = expression.substring(i, i + 1);
-			char c = current.charAt(0);
+			char c = expression.charAt(i);
 			sb.append(c);
 			if (CalculatorUtils.isLetter(c))
 				isFunctionStarted = true;
@@ -125,9 +126,9 @@ public class CalculatorExpressionFormatter {
 
 				boolean isNowDigit = CalculatorUtils.isDigit(c);
 				boolean isNextDigit = CalculatorUtils.isDigit(next);
-				boolean isNextOpenBracket = findOpenBracket(next) != -1;
-				boolean isNowCloseBracket = findCloseBracket(c) != -1;
-				boolean isNowSuffixOperator = isSuffixOperator(current);
+				boolean isNextOpenBracket = grammar.isOpenBracket(next);
+				boolean isNowCloseBracket = grammar.isCloseBracket(c);
+				boolean isNowSuffixOperator = grammar.isSuffixOperator(c);
 				boolean isNextLetter = CalculatorUtils.isLetter(next);
 
 				boolean isDigitBeforeOpenBracket = parameters.isInsertMultiplySignBetweenNumberAndOpenBracket() &&
@@ -189,29 +190,6 @@ public class CalculatorExpressionFormatter {
 		return sb.toString();
 	}
 
-	private int findOpenBracket(char c) {
-		for (BracketsType type : bracketsTypes) {
-			if (c == type.openBracket)
-				return type.type;
-		}
-		return -1;
-	}
-
-	private int findCloseBracket(char c) {
-		for (BracketsType type : bracketsTypes) {
-			if (c == type.closeBracket)
-				return type.type;
-		}
-		return -1;
-	}
-
-	private boolean isSuffixOperator(String s) {
-		for (SuffixOperator operator : suffixOperators)
-			if (operator.getSymbol().equals(s))
-				return true;
-		return false;
-	}
-
 	public static class Parameters {
 		private final boolean insertMultiplySignBetweenNumberAndFunction;
 		private final boolean insertMultiplySignBetweenNumberAndOpenBracket;
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token for cooperative cancellation of evaluation.<br>
+ * Token can be cancelled from any thread with {@link #cancel()} or expire after deadline.
+ * Calculator checks it between nodes of tree and inside long loops (factorial, power, gcd),
+ * and aborts evaluation with {@link CalculationException#EVALUATION_CANCELLED} or
+ * {@link CalculationException#EVALUATION_TIME_LIMIT_EXCEEDED}.
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+	private final boolean hasDeadline;
+
+	private final long deadlineNanos;
+
+	public CancellationToken() {
+		this(false, 0);
+	}
+
+	private CancellationToken(boolean hasDeadline, long deadlineNanos) {
+		this.hasDeadline = hasDeadline;
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * Creates token which expires after given amount of time from now
+	 */
+	public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+		return new CancellationToken(true, System.nanoTime() + unit.toNanos(timeout));
+	}
+
+	public static CancellationToken withTimeout(long timeoutMillis) {
+		return withTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isExpired() {
+		return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+	}
+
+	public void throwIfCancelled() {
+		if (cancelled)
+			throw new CalculationException(CalculationException.EVALUATION_CANCELLED);
+		if (isExpired())
+			throw new CalculationException(CalculationException.EVALUATION_TIME_LIMIT_EXCEEDED);
+	}
+
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.BracketsNode;
+import com.maxsavteam.calculator.tree.nodes.ConstantNode;
+import com.maxsavteam.calculator.tree.nodes.FunctionNode;
+import com.maxsavteam.calculator.tree.nodes.NegativeNumberNode;
+import com.maxsavteam.calculator.tree.nodes.NumberNode;
+import com.maxsavteam.calculator.tree.nodes.OperatorNode;
+import com.maxsavteam.calculator.tree.nodes.SuffixOperatorNode;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates expression for many rows of variables at once in {@code double} arithmetic.<br>
+ * Tree is walked once per chunk of rows and every node is computed for whole chunk in tight loop.
+ * Nodes which have no {@code double} implementation (user-defined functions, factorials, custom resolvers)
+ * are evaluated row by row with {@link BigDecimal} arithmetic.
+ * Variables of parent context are visible in every row.
+ * Rows whose results cannot be trusted (non-finite values, catastrophic cancellation) are recomputed
+ * from scratch with {@link BigDecimal} arithmetic. Rows which cannot be evaluated at all because of their values
+ * (e.g. division by zero, logarithm of negative number) get NaN, and error of the first such row is kept.
+ * Other errors (cancellation, limits, unknown names) are thrown.
+ */
+class ColumnEvaluator {
+
+	/**
+	 * Rows are evaluated in chunks of this size, so intermediate columns stay in cache
+	 */
+	static final int CHUNK_SIZE = 4096;
+
+	/**
+	 * Result of addition or subtraction which is smaller than operands by this factor lost too many bits
+	 */
+	private static final double CANCELLATION_THRESHOLD = 0x1p-30;
+
+	private static final byte TRUSTED = 0;
+	private static final byte UNTRUSTED = 1;
+	private static final byte FAILED = 2;
+
+	/**
+	 * Errors which depend on values of row. Such rows get NaN, other errors are thrown
+	 */
+	private static final Set<Integer> ROW_ERRORS = Set.of(
+			CalculationException.NEGATIVE_PARAMETER_OF_LOG,
+			CalculationException.NAN,
+			CalculationException.UNDEFINED,
+			CalculationException.DIVISION_BY_ZERO,
+			CalculationException.FACTORIAL_LIMIT_EXCEEDED,
+			CalculationException.INVALID_ASIN_ACOS_VALUE,
+			CalculationException.INVALID_VALUE_FOR_TANGENT,
+			CalculationException.INVALID_VALUE_FOR_COTANGENT,
+			CalculationException.INVALID_VALUE_FOR_SECANT,
+			CalculationException.INVALID_VALUE_FOR_COSECANT,
+			CalculationException.INVALID_VALUE_FOR_ASEC_ACSC,
+			CalculationException.ROOT_OF_NEGATIVE_NUMBER,
+			CalculationException.ROOT_OF_NEGATIVE_OR_ZERO_DEGREE,
+			CalculationException.CALL_DEPTH_EXCEEDED,
+			CalculationException.NOT_CONVERGED
+	);
+
+	private final Calculator calculator;
+	private final TreeNode root;
+	private final Map<String, double[]> columns;
+	private final AngleMode angleMode;
+	private final boolean defaultResolvers;
+	private final EvaluationContext parentContext;
+
+	private CalculationException firstError;
+	private int firstErrorRow = Integer.MAX_VALUE;
+
+	ColumnEvaluator(Calculator calculator, TreeNode root, Map<String, double[]> columns, EvaluationContext parentContext) {
+		this.calculator = calculator;
+		this.root = root;
+		this.columns = columns;
+		this.angleMode = calculator.getAngleMode();
+		this.defaultResolvers = calculator.usesDefaultResolvers();
+		this.parentContext = parentContext;
+	}
+
+	/**
+	 * @return Count of rows which were recomputed with {@link BigDecimal} arithmetic
+	 */
+	int evaluate(double[] out) {
+		return evaluate(out, CHUNK_SIZE);
+	}
+
+	/**
+	 * @param rowsPerTask Rows are split into parallel tasks of at most this size.
+	 *                    Callers with small batches of expensive rows may pass less than {@link #CHUNK_SIZE}
+	 * @return Count of rows which were recomputed with {@link BigDecimal} arithmetic
+	 */
+	int evaluate(double[] out, int rowsPerTask) {
+		firstError = null;
+		firstErrorRow = Integer.MAX_VALUE;
+		if (out.length <= rowsPerTask || ForkJoinPool.getCommonPoolParallelism() < 2)
+			return evaluateChunks(out, 0, out.length);
+		return new ChunksTask(out, 0, out.length, rowsPerTask).invoke();
+	}
+
+	/**
+	 * @return Error of the row with the least index which got NaN because of error in the last evaluation,
+	 * or {@code null} if there is no such row
+	 */
+	synchronized CalculationException getFirstError() {
+		return firstError;
+	}
+
+	private synchronized void recordError(int row, CalculationException e) {
+		if (row < firstErrorRow) {
+			firstErrorRow = row;
+			firstError = e;
+		}
+	}
+
+	private int evaluateChunks(double[] out, int from, int to) {
+		EvaluationContext previous = EvaluationContext.enter(parentContext.fork());
+		try {
+			int recomputed = 0;
+			for (int start = from; start < to; start += CHUNK_SIZE)
+				recomputed += evaluateChunk(out, start, Math.min(to, start + CHUNK_SIZE));
+			return recomputed;
+		} finally {
+			EvaluationContext.restore(previous);
+		}
+	}
+
+	private int evaluateChunk(double[] out, int from, int to) {
+		int size = to - from;
+		byte[] states = new byte[size];
+		double[] values = column(root, from, size, states);
+		int recomputed = 0;
+		for (int i = 0; i < size; i++) {
+			double value = values[i];
+			if (states[i] == FAILED) {
+				out[from + i] = Double.NaN;
+			} else if (states[i] == UNTRUSTED || !Double.isFinite(value)) {
+				out[from + i] = evaluateRow(root, from + i);
+				recomputed++;
+			} else {
+				out[from + i] = value;
+			}
+		}
+		return recomputed;
+	}
+
+	/**
+	 * @return Values of node for rows {@code [from, from + size)}. Returned array is owned by caller.
+	 */
+	private double[] column(TreeNode node, int from, int size, byte[] states) {
+		EvaluationContext.checkCancelled();
+		if (node instanceof NumberNode) {
+			try {
+				return filled(Double.parseDouble(((NumberNode) node).getNumber()), size);
+			} catch (NumberFormatException e) {
+				return fallback(node, from, size, states);
+			}
+		}
+		if (node instanceof ConstantNode) {
+			double[] column = columns.get(((ConstantNode) node).getName());
+			if (column != null)
+				return Arrays.copyOfRange(column, from, from + size);
+			return constant((ConstantNode) node, from, size, states);
+		}
+		if (node instanceof NegativeNumberNode && node.getFirstChild() != null) {
+			double[] values = column(node.getFirstChild(), from, size, states);
+			for (int i = 0; i < size; i++)
+				values[i] = -values[i];
+			return values;
+		}
+		if (defaultResolvers) {
+			if (node instanceof OperatorNode)
+				return operator((OperatorNode) node, from, size, states);
+			if (node instanceof BracketsNode && node.getFirstChild() != null)
+				return brackets((BracketsNode) node, from, size, states);
+			if (node instanceof SuffixOperatorNode && node.getFirstChild() != null)
+				return suffix((SuffixOperatorNode) node, from, size, states);
+			if (node instanceof FunctionNode)
+				return function((FunctionNode) node, from, size, states);
+		}
+		return fallback(node, from, size, states);
+	}
+
+	private double[] constant(ConstantNode node, int from, int size, byte[] states) {
+		try {
+			NumberList value = calculator.resolveConstant(node);
+			if (value.isSingleNumber())
+				return filled(value.getSingleNumberIfTrue().doubleValue(), size);
+		} catch (CalculationException ignored) {
+			// reported by fallback evaluation
+		}
+		return fallback(node, from, size, states);
+	}
+
+	private double[] operator(OperatorNode node, int from, int size, byte[] states) {
+		TreeNode leftNode = node.getFirstChild();
+		TreeNode rightNode = node.getSecondChild();
+		if (leftNode == null || rightNode == null)
+			return fallback(node, from, size, states);
+		char operator = node.getOperator();
+		double[] a = column(leftNode, from, size, states);
+		double[] b = column(rightNode, from, size, states);
+		if (rightNode instanceof SuffixOperatorNode && ((SuffixOperatorNode) rightNode).getOperator().getSymbol().equals("%"))
+			return percent(operator, a, b, node, from, size, states);
+		switch (operator) {
+			case '+':
+				for (int i = 0; i < size; i++) {
+					double r = a[i] + b[i];
+					checkCancellation(r, a[i], b[i], states, i);
+					a[i] = r;
+				}
+				return a;
+			case '-':
+				for (int i = 0; i < size; i++) {
+					double r = a[i] - b[i];
+					checkCancellation(r, a[i], b[i], states, i);
+					a[i] = r;
+				}
+				return a;
+			case '*':
+				for (int i = 0; i < size; i++)
+					a[i] *= b[i];
+				return a;
+			case '/':
+				// division by zero gives non-finite value, so row is recomputed and reports error
+				for (int i = 0; i < size; i++)
+					a[i] /= b[i];
+				return a;
+			case '^':
+				for (int i = 0; i < size; i++)
+					a[i] = a[i] == 0 && b[i] <= 0 ? Double.NaN : Math.pow(a[i], b[i]);
+				return a;
+			default:
+				return fallback(node, from, size, states);
+		}
+	}
+
+	/**
+	 * @param percent Values of percents, which are already divided by 100
+	 */
+	private double[] percent(char operator, double[] a, double[] percent, TreeNode node, int from, int size, byte[] states) {
+		switch (operator) {
+			case '+':
+				for (int i = 0; i < size; i++)
+					a[i] += a[i] * percent[i];
+				return a;
+			case '-':
+				for (int i = 0; i < size; i++)
+					a[i] -= a[i] * percent[i];
+				return a;
+			case '*':
+				for (int i = 0; i < size; i++)
+					a[i] *= percent[i];
+				return a;
+			case '/':
+				for (int i = 0; i < size; i++)
+					a[i] /= percent[i];
+				return a;
+			default:
+				return fallback(node, from, size, states);
+		}
+	}
+
+	/**
+	 * Marks row as untrusted if close values were added or subtracted, so errors of operands were magnified.
+	 * Exact zero is untrusted too, because operands may differ only by rounding.
+	 */
+	private static void checkCancellation(double result, double a, double b, byte[] states, int i) {
+		if (Math.abs(result) < CANCELLATION_THRESHOLD * Math.max(Math.abs(a), Math.abs(b)) && states[i] == TRUSTED)
+			states[i] = UNTRUSTED;
+	}
+
+	private double[] brackets(BracketsNode node, int from, int size, byte[] states) {
+		int type = node.getType();
+		if (type < 1 || type > 4)
+			return fallback(node, from, size, states);
+		double[] values = column(node.getFirstChild(), from, size, states);
+		for (int i = 0; i < size; i++) {
+			double x = values[i];
+			if (type == 2)
+				values[i] = x < 0 ? -Math.floor(-x + 0.5) : Math.floor(x + 0.5);
+			else if (type == 3)
+				values[i] = x < 0 ? Math.ceil(x) : Math.floor(x);
+			else if (type == 4)
+				values[i] = x < 0 ? Math.floor(x) : Math.ceil(x);
+		}
+		return values;
+	}
+
+	private double[] suffix(SuffixOperatorNode node, int from, int size, byte[] states) {
+		double factor;
+		switch (node.getOperator().getSymbol()) {
+			case "%":
+				factor = Math.pow(0.01, node.getCount());
+				break;
+			case Calculator.DEGREE_SIGN:
+				factor = Math.pow(radiansPerUnit(AngleMode.DEGREES) / radiansPerUnit(angleMode), node.getCount());
+				break;
+			case Calculator.GRAD_SIGN:
+				factor = Math.pow(radiansPerUnit(AngleMode.GRADIANS) / radiansPerUnit(angleMode), node.getCount());
+				break;
+			default:
+				return fallback(node, from, size, states);
+		}
+		double[] values = column(node.getFirstChild(), from, size, states);
+		for (int i = 0; i < size; i++)
+			values[i] *= factor;
+		return values;
+	}
+
+	private static double radiansPerUnit(AngleMode angleMode) {
+		return angleMode.radiansPerUnit(MathContext.DECIMAL64).doubleValue();
+	}
+
+	private double[] function(FunctionNode node, int from, int size, byte[] states) {
+		FunctionHandle handle = node.getHandle();
+		FunctionHandle.DoubleKernel kernel = handle == null ? null : handle.getDoubleKernel();
+		TreeNode suffixNode = node.getSuffixNode();
+		TreeNode operandNode = node.getFirstChild();
+		if (kernel == null || (suffixNode == null && operandNode == null))
+			return fallback(node, from, size, states);
+		double[] suffix = suffixNode == null ? null : column(suffixNode, from, size, states);
+		double[] values;
+		if (operandNode == null) {
+			values = suffix;
+			suffix = null;
+		} else if (suffix != null && handle.getArity() == 1) {
+			// suffix is argument of unary function, so operand is ignored as in BigDecimal evaluation
+			values = suffix;
+			suffix = null;
+		} else {
+			values = column(operandNode, from, size, states);
+		}
+		kernel.apply(suffix, values, size, angleMode);
+		return values;
+	}
+
+	/**
+	 * Evaluates node row by row with {@link BigDecimal} arithmetic
+	 */
+	private double[] fallback(TreeNode node, int from, int size, byte[] states) {
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) {
+			if (states[i] == FAILED) {
+				values[i] = Double.NaN;
+				continue;
+			}
+			values[i] = evaluateRow(node, from + i);
+			if (Double.isNaN(values[i]))
+				states[i] = FAILED;
+		}
+		return values;
+	}
+
+	/**
+	 * @return Value of node for row or NaN if it cannot be evaluated because of its values
+	 * @throws CalculationException if error does not depend on values of row
+	 */
+	private double evaluateRow(TreeNode node, int row) {
+		EvaluationContext context = EvaluationContext.current();
+		Map<String, NumberList> variables = new HashMap<>(parentContext.getVariables());
+		for (Map.Entry<String, double[]> entry : columns.entrySet()) {
+			double value = entry.getValue()[row];
+			if (!Double.isFinite(value))
+				return Double.NaN;
+			variables.put(entry.getKey(), NumberList.of(BigDecimal.valueOf(value)));
+		}
+		context.setVariables(variables);
+		try {
+			NumberList result = calculator.evaluateNode(node);
+			if (!result.isSingleNumber()) {
+				recordError(row, new CalculationException(CalculationException.UNDEFINED, "result is list"));
+				return Double.NaN;
+			}
+			return result.getSingleNumberIfTrue().doubleValue();
+		} catch (CalculationException e) {
+			if (!ROW_ERRORS.contains(e.getErrorCode()))
+				throw e;
+			recordError(row, e);
+			return Double.NaN;
+		} catch (ArithmeticException e) {
+			recordError(row, new CalculationException(CalculationException.UNDEFINED, e));
+			return Double.NaN;
+		}
+	}
+
+	private static double[] filled(double value, int size) {
+		double[] values = new double[size];
+		Arrays.fill(values, value);
+		return values;
+	}
+
+	private class ChunksTask extends RecursiveTask<Integer> {
+		private final double[] out;
+		private final int from;
+		private final int to;
+		private final int rowsPerTask;
+
+		ChunksTask(double[] out, int from, int to, int rowsPerTask) {
+			this.out = out;
+			this.from = from;
+			this.to = to;
+			this.rowsPerTask = rowsPerTask;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= rowsPerTask)
+				return evaluateChunks(out, from, to);
+			// split at task boundary
+			int mid = from + ((to - from) / rowsPerTask / 2) * rowsPerTask;
+			if (mid == from)
+				mid += rowsPerTask;
+			ChunksTask left = new ChunksTask(out, from, mid, rowsPerTask);
+			left.fork();
+			int right = new ChunksTask(out, mid, to, rowsPerTask).compute();
+			return left.join() + right;
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expression which was parsed once and can be evaluated many times.<br>
+ * Expression is evaluated with current settings (angle mode, resolvers, digit limit) of calculator which compiled it.
+ *
+ * @see Calculator#compile(String)
+ */
+public class CompiledExpression {
+
+	private final Calculator calculator;
+	private final String expression;
+	private final TreeNode root;
+
+	CompiledExpression(Calculator calculator, String expression, TreeNode root) {
+		this.calculator = calculator;
+		this.expression = expression;
+		this.root = root;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	TreeNode getRoot() {
+		return root;
+	}
+
+	/**
+	 * @throws CalculationException if expression cannot be evaluated
+	 */
+	public NumberList evaluate() {
+		return evaluate(Map.of(), null);
+	}
+
+	/**
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 * @throws CalculationException if expression cannot be evaluated
+	 */
+	public NumberList evaluate(CancellationToken cancellationToken) {
+		return evaluate(Map.of(), cancellationToken);
+	}
+
+	/**
+	 * Evaluates expression with variables
+	 *
+	 * @see Calculator#calculate(String, Map, CancellationToken)
+	 */
+	public NumberList evaluate(Map<String, NumberList> variables) {
+		return evaluate(variables, null);
+	}
+
+	/**
+	 * @param variables         Values of variables by names
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 * @throws CalculationException if expression cannot be evaluated
+	 */
+	public NumberList evaluate(Map<String, NumberList> variables, CancellationToken cancellationToken) {
+		return calculator.evaluate(root, variables, cancellationToken);
+	}
+
+	/**
+	 * Evaluates expression for many rows of variables at once.
+	 * Row {@code i} binds every variable to {@code columns.get(name)[i]} and its result is written to {@code out[i]}.<br>
+	 * Expression is evaluated in {@code double} arithmetic column by column, which is much faster than
+	 * evaluating rows one by one. Rows whose {@code double} results cannot be trusted (non-finite values,
+	 * cancellation of close values, points near poles of functions) and parts of expression which have
+	 * no {@code double} implementation are evaluated with {@link java.math.BigDecimal} arithmetic,
+	 * so results agree with {@link #evaluate(Map)} up to rounding. Rows which cannot be evaluated because
+	 * of their values (division by zero, logarithm of negative number, results which are lists) get NaN.
+	 * Errors which do not depend on values of row (cancellation, limits, unknown names) are thrown.
+	 *
+	 * @param columns Values of variables by names
+	 * @param out     Array for results, its length is count of rows
+	 * @return Count of rows which were recomputed with {@link java.math.BigDecimal} arithmetic
+	 * @throws IllegalArgumentException if any column is shorter than {@code out}
+	 */
+	public int evaluateBatch(Map<String, double[]> columns, double[] out) {
+		return evaluateBatch(columns, out, null);
+	}
+
+	/**
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 * @see #evaluateBatch(Map, double[])
+	 */
+	public int evaluateBatch(Map<String, double[]> columns, double[] out, CancellationToken cancellationToken) {
+		return evaluateBatch(columns, out, cancellationToken, ColumnEvaluator.CHUNK_SIZE);
+	}
+
+	/**
+	 * Same as {@link #evaluateBatch(Map, double[], CancellationToken)}, but if any row gets NaN because of error,
+	 * error of the row with the least index is thrown after all rows are evaluated.
+	 *
+	 * @throws CalculationException error of the first row which cannot be evaluated
+	 */
+	public int evaluateBatchOrThrow(Map<String, double[]> columns, double[] out, CancellationToken cancellationToken) {
+		ColumnEvaluator evaluator = columnEvaluator(columns, out, cancellationToken);
+		int recomputed = evaluator.evaluate(out);
+		CalculationException error = evaluator.getFirstError();
+		if (error != null)
+			throw error;
+		return recomputed;
+	}
+
+	/**
+	 * @param rowsPerTask Rows are split into parallel tasks of at most this size
+	 */
+	int evaluateBatch(Map<String, double[]> columns, double[] out, CancellationToken cancellationToken, int rowsPerTask) {
+		return columnEvaluator(columns, out, cancellationToken).evaluate(out, rowsPerTask);
+	}
+
+	private ColumnEvaluator columnEvaluator(Map<String, double[]> columns, double[] out, CancellationToken cancellationToken) {
+		for (Map.Entry<String, double[]> entry : columns.entrySet()) {
+			if (entry.getValue().length < out.length)
+				throw new IllegalArgumentException("Column " + entry.getKey() + " has " + entry.getValue().length
+						+ " values, but " + out.length + " are required");
+		}
+		return new ColumnEvaluator(calculator, root, Map.copyOf(columns), calculator.createContext(cancellationToken));
+	}
+
+	/**
+	 * Samples expression as function of one variable for plotting.
+	 * Points are placed densely where graph bends, near poles and at boundaries of domain,
+	 * and sparsely where graph is almost straight. Points where expression cannot be evaluated get NaN.
+	 * Points with NaN are also inserted at detected discontinuities (e.g. poles of tangent), so graph is broken there.
+	 *
+	 * @param variable  Name of variable
+	 * @param from      Start of range
+	 * @param to        End of range
+	 * @param maxPoints Maximum count of evaluated points, e.g. width of plot in pixels
+	 * @throws IllegalArgumentException if range is empty or not finite, or {@code maxPoints < 2}
+	 */
+	public PlotSamples sample(String variable, double from, double to, int maxPoints) {
+		return sample(variable, from, to, maxPoints, null);
+	}
+
+	/**
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 * @see #sample(String, double, double, int)
+	 */
+	public PlotSamples sample(String variable, double from, double to, int maxPoints, CancellationToken cancellationToken) {
+		if (!Double.isFinite(from) || !Double.isFinite(to) || from >= to)
+			throw new IllegalArgumentException("Invalid range [" + from + ", " + to + "]");
+		if (maxPoints < 2)
+			throw new IllegalArgumentException("At least 2 points are required");
+		return new AdaptiveSampler(this, variable, cancellationToken).sample(from, to, maxPoints);
+	}
+
+	/**
+	 * Computes value of expression and its derivative by variable in one pass with automatic differentiation.
+	 * Derivative is exact up to precision of functions, unlike finite differences.
+	 *
+	 * @param variable  Variable of differentiation
+	 * @param variables Values of all variables
+	 * @throws CalculationException {@link CalculationException#NOT_DIFFERENTIABLE} if expression contains lists,
+	 *                              factorials, user-defined functions or calculator has custom resolvers
+	 */
+	public Derivatives differentiate(String variable, Map<String, NumberList> variables) {
+		return gradient(List.of(variable), variables, null);
+	}
+
+	/**
+	 * Computes value of expression and its partial derivatives by several variables in one pass
+	 *
+	 * @see #differentiate(String, Map)
+	 */
+	public Derivatives gradient(List<String> directions, Map<String, NumberList> variables) {
+		return gradient(directions, variables, null);
+	}
+
+	/**
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 * @see #gradient(List, Map)
+	 */
+	public Derivatives gradient(List<String> directions, Map<String, NumberList> variables, CancellationToken cancellationToken) {
+		return calculator.differentiate(root, List.copyOf(directions), variables, cancellationToken);
+	}
+
+	/**
+	 * Finds root of equation {@code expression = 0} in interval where expression changes sign.
+	 * Root is searched in {@code double} arithmetic and then polished in {@link java.math.BigDecimal} arithmetic
+	 * to {@code precision} significant digits with Newton's method, derivative is computed with
+	 * automatic differentiation (see {@link #differentiate(String, Map)}). If expression cannot be differentiated,
+	 * secant method is used. Precision of polishing is limited by precision
+	 * of calculator's functions and divisions (see {@link Calculator#setRoundScale(int)}), so residual should be checked.
+	 *
+	 * @param variable  Name of variable
+	 * @param lower     Start of interval
+	 * @param upper     End of interval
+	 * @param precision Count of significant digits of root
+	 * @throws CalculationException {@link CalculationException#ROOT_NOT_BRACKETED} if expression has the same sign at both ends,
+	 *                              {@link CalculationException#UNDEFINED} if expression is not defined at some point of search,
+	 *                              {@link CalculationException#NOT_CONVERGED} if expression changes sign at pole or jump instead of root
+	 */
+	public Solution solve(String variable, double lower, double upper, int precision) {
+		return solve(variable, lower, upper, precision, null, null);
+	}
+
+	/**
+	 * Same as {@link #solve(String, double, double, int)}, but uses given derivative of expression
+	 * for Newton's steps when root is polished
+	 *
+	 * @param derivative        Derivative of expression or {@code null} to differentiate expression automatically
+	 * @param cancellationToken Token which is checked during evaluation, may be {@code null}
+	 */
+	public Solution solve(String variable, double lower, double upper, int precision,
+	                      CompiledExpression derivative, CancellationToken cancellationToken) {
+		if (!Double.isFinite(lower) || !Double.isFinite(upper) || lower > upper)
+			throw new IllegalArgumentException("Invalid interval [" + lower + ", " + upper + "]");
+		if (precision < 1)
+			throw new IllegalArgumentException("Precision must be positive");
+		return new Solver(calculator, this, variable, derivative == null ? null : derivative.getRoot(), cancellationToken)
+				.solve(lower, upper, precision);
+	}
+
+	public CostEstimate estimateCost() {
+		return calculator.estimateCost(root);
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+}
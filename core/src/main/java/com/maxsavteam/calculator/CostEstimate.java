@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator;
+
+/**
+ * Static estimation of how expensive evaluation of expression is.
+ * Estimations are comparable by {@link #getScore()}.
+ *
+ * @see Calculator#estimateCost(String)
+ */
+public class CostEstimate implements Comparable<CostEstimate> {
+
+	private final int nodeCount;
+	private final int transcendentalCalls;
+	private final int precision;
+	private final double maxFactorialOperand;
+	private final double maxPowerExponent;
+	private final long listElements;
+	private final double maxDigits;
+	private final double score;
+
+	CostEstimate(int nodeCount,
+	             int transcendentalCalls,
+	             int precision,
+	             double maxFactorialOperand,
+	             double maxPowerExponent,
+	             long listElements,
+	             double maxDigits,
+	             double score) {
+		this.nodeCount = nodeCount;
+		this.transcendentalCalls = transcendentalCalls;
+		this.precision = precision;
+		this.maxFactorialOperand = maxFactorialOperand;
+		this.maxPowerExponent = maxPowerExponent;
+		this.listElements = listElements;
+		this.maxDigits = maxDigits;
+		this.score = score;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return Number of calls of functions which are evaluated with series (sin, ln, sqrt and so on)
+	 */
+	public int getTranscendentalCalls() {
+		return transcendentalCalls;
+	}
+
+	/**
+	 * @return Precision which transcendental functions were estimated with
+	 */
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * @return The greatest (estimated) operand of factorial or 0 if there are no factorials
+	 */
+	public double getMaxFactorialOperand() {
+		return maxFactorialOperand;
+	}
+
+	/**
+	 * @return The greatest (estimated) absolute value of exponent or 0 if there are no powers
+	 */
+	public double getMaxPowerExponent() {
+		return maxPowerExponent;
+	}
+
+	/**
+	 * @return Total number of elements in all lists of expression
+	 */
+	public long getListElements() {
+		return listElements;
+	}
+
+	/**
+	 * @return Estimated number of digits of the largest intermediate result
+	 */
+	public double getMaxDigits() {
+		return maxDigits;
+	}
+
+	/**
+	 * @return Relative cost of evaluation. Only comparison of scores is meaningful.
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	@Override
+	public int compareTo(CostEstimate o) {
+		return Double.compare(score, o.score);
+	}
+
+	@Override
+	public String toString() {
+		return "CostEstimate{" +
+				"nodeCount=" + nodeCount +
+				", transcendentalCalls=" + transcendentalCalls +
+				", precision=" + precision +
+				", maxFactorialOperand=" + maxFactorialOperand +
+				", maxPowerExponent=" + maxPowerExponent +
+				", listElements=" + listElements +
+				", maxDigits=" + maxDigits +
+				", score=" + score +
+				'}';
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.functions.FunctionRegistry;
+import com.maxsavteam.calculator.tree.nodes.BracketsNode;
+import com.maxsavteam.calculator.tree.nodes.FunctionNode;
+import com.maxsavteam.calculator.tree.nodes.ListNode;
+import com.maxsavteam.calculator.tree.nodes.NegativeNumberNode;
+import com.maxsavteam.calculator.tree.nodes.NumberNode;
+import com.maxsavteam.calculator.tree.nodes.OperatorNode;
+import com.maxsavteam.calculator.tree.nodes.SuffixOperatorNode;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.MathUtils;
+import com.maxsavteam.calculator.utils.Quadrature;
+
+import java.util.List;
+
+/**
+ * Walks tree and estimates cost of its evaluation without evaluating anything.<br>
+ * Magnitudes of intermediate results are propagated as log10 of their absolute values,
+ * so sizes of powers and factorials can be predicted even if their operands are expressions.
+ */
+class CostEstimator {
+
+	private final int precision;
+	private final FunctionRegistry functionRegistry;
+
+	private int nodeCount;
+	private int transcendentalCalls;
+	private double maxFactorialOperand;
+	private double maxPowerExponent;
+	private long listElements;
+	private double maxDigits;
+	private double exactOperationsCost;
+	private double repeatedCost;
+
+	/**
+	 * @param functionRegistry Registry which is used for functions not bound to handles
+	 */
+	CostEstimator(int precision, FunctionRegistry functionRegistry) {
+		this.precision = precision;
+		this.functionRegistry = functionRegistry;
+	}
+
+	CostEstimate estimate(TreeNode root) {
+		visit(root);
+		double transcendentalCost = (double) transcendentalCalls * precision * precision / 10;
+		double score = nodeCount + transcendentalCost + exactOperationsCost + repeatedCost;
+		return new CostEstimate(
+				nodeCount,
+				transcendentalCalls,
+				precision,
+				maxFactorialOperand,
+				maxPowerExponent,
+				listElements,
+				maxDigits,
+				score
+		);
+	}
+
+	/**
+	 * Registers exact operation which produces number with given count of digits.
+	 * Multiplication of such numbers costs roughly {@code digits * log(digits)}.
+	 */
+	private void exactOperation(double digits) {
+		digits = Math.max(1, digits);
+		maxDigits = Math.max(maxDigits, digits);
+		exactOperationsCost += digits * Math.log(digits + 1) / 10;
+	}
+
+	private Magnitude visit(TreeNode node) {
+		if (node == null)
+			return Magnitude.UNKNOWN;
+		nodeCount++;
+		if (node instanceof NumberNode) {
+			return Magnitude.ofNumber(((NumberNode) node).getNumber());
+		} else if (node instanceof NegativeNumberNode) {
+			Magnitude m = visit(node.getFirstChild());
+			return new Magnitude(m.log10, -m.value);
+		} else if (node instanceof BracketsNode) {
+			return visit(node.getFirstChild());
+		} else if (node instanceof ListNode) {
+			Magnitude max = Magnitude.UNKNOWN;
+			for (TreeNode child : ((ListNode) node).getNodes()) {
+				listElements++;
+				Magnitude m = visit(child);
+				if (m.log10 > max.log10)
+					max = m;
+			}
+			return new Magnitude(max.log10, Double.NaN);
+		} else if (node instanceof OperatorNode) {
+			return visitOperator((OperatorNode) node);
+		} else if (node instanceof SuffixOperatorNode) {
+			return visitSuffix((SuffixOperatorNode) node);
+		} else if (node instanceof FunctionNode) {
+			FunctionNode functionNode = (FunctionNode) node;
+			FunctionHandle handle = functionNode.getHandle();
+			if (handle == null)
+				handle = functionRegistry.get(functionNode.getFunctionName());
+			if (handle != null && handle.isSpecialForm())
+				return visitSpecialForm(functionNode.getFunctionName(), Calculator.getArgumentNodes(functionNode));
+			visit(functionNode.getSuffixNode());
+			visit(functionNode.getFirstChild());
+			if (handle != null && handle.getCostHint() == FunctionHandle.CostHint.TRANSCENDENTAL)
+				transcendentalCalls++;
+			return Magnitude.UNKNOWN;
+		}
+		return Magnitude.UNKNOWN;
+	}
+
+	/**
+	 * Generators produce lists whose sizes are estimated from their bounds.
+	 * Bodies of generators and integrals are evaluated many times, so their cost is multiplied by count of evaluations.
+	 */
+	private Magnitude visitSpecialForm(String name, List<TreeNode> arguments) {
+		switch (name) {
+			case "range": {
+				double count = elementCount(arguments, 0);
+				addListElements(count);
+				repeatedCost += count;
+				return Magnitude.UNKNOWN;
+			}
+			case "seq":
+			case "sigma": {
+				if (arguments.size() < 4)
+					break;
+				double count = elementCount(arguments, 2);
+				if (name.equals("seq"))
+					addListElements(count);
+				visitRepeated(arguments.get(0), count);
+				return Magnitude.UNKNOWN;
+			}
+			case "integrate": {
+				if (arguments.size() < 4)
+					break;
+				visit(arguments.get(2));
+				visit(arguments.get(3));
+				visitRepeated(arguments.get(0), Quadrature.MAX_EVALUATIONS);
+				return Magnitude.UNKNOWN;
+			}
+			default:
+				break;
+		}
+		for (TreeNode argument : arguments)
+			visit(argument);
+		return Magnitude.UNKNOWN;
+	}
+
+	/**
+	 * @param offset Index of the first bound, which is followed by the second bound and optional step
+	 * @return Estimated count of values between bounds, 1 if there are not enough arguments
+	 */
+	private double elementCount(List<TreeNode> arguments, int offset) {
+		if (arguments.size() < offset + 2) {
+			for (TreeNode argument : arguments)
+				visit(argument);
+			return 1;
+		}
+		Magnitude from = visit(arguments.get(offset));
+		Magnitude to = visit(arguments.get(offset + 1));
+		double step = 1;
+		if (arguments.size() > offset + 2) {
+			Magnitude m = visit(arguments.get(offset + 2));
+			if (!Double.isNaN(m.value) && m.value != 0)
+				step = Math.abs(m.value);
+		}
+		double span = Double.isNaN(from.value) || Double.isNaN(to.value)
+				? Math.pow(10, from.log10) + Math.pow(10, to.log10)
+				: Math.abs(to.value - from.value);
+		return Math.floor(span / step) + 1;
+	}
+
+	/**
+	 * Visits node which is evaluated {@code count} times
+	 */
+	private void visitRepeated(TreeNode node, double count) {
+		int nodesBefore = nodeCount;
+		int transcendentalBefore = transcendentalCalls;
+		double exactBefore = exactOperationsCost;
+		double repeatedBefore = repeatedCost;
+		long listElementsBefore = listElements;
+		visit(node);
+		double cost = (nodeCount - nodesBefore)
+				+ (double) (transcendentalCalls - transcendentalBefore) * precision * precision / 10
+				+ (exactOperationsCost - exactBefore)
+				+ (repeatedCost - repeatedBefore);
+		repeatedCost += (count - 1) * cost;
+		addListElements((count - 1) * (listElements - listElementsBefore));
+	}
+
+	private void addListElements(double count) {
+		listElements = (long) Math.min((double) Long.MAX_VALUE, listElements + count);
+	}
+
+	private Magnitude visitOperator(OperatorNode node) {
+		Magnitude a = visit(node.getFirstChild());
+		Magnitude b = visit(node.getSecondChild());
+		switch (node.getOperator()) {
+			case '+':
+			case '-':
+				return new Magnitude(Math.max(a.log10, b.log10) + 1, Double.NaN);
+			case '*': {
+				double log10 = a.log10 + b.log10;
+				exactOperation(log10);
+				return new Magnitude(log10, a.value * b.value);
+			}
+			case '/':
+				return new Magnitude(Math.max(a.log10 - b.log10, 1), a.value / b.value);
+			case '^': {
+				double exponent = Double.isNaN(b.value) ? Math.pow(10, b.log10) : Math.abs(b.value);
+				maxPowerExponent = Math.max(maxPowerExponent, exponent);
+				double log10 = exponent * Math.max(a.log10, 1);
+				exactOperation(log10);
+				return new Magnitude(log10, Math.pow(a.value, b.value));
+			}
+			default:
+				return Magnitude.UNKNOWN;
+		}
+	}
+
+	private Magnitude visitSuffix(SuffixOperatorNode node) {
+		Magnitude operand = visit(node.getFirstChild());
+		String symbol = node.getOperator().getSymbol();
+		if (symbol.equals("!")) {
+			double n = Double.isNaN(operand.value) ? Math.pow(10, operand.log10) : operand.value;
+			// factorials greater than limit are rejected immediately
+			n = Math.min(n, MathUtils.FACTORIAL_LIMIT);
+			maxFactorialOperand = Math.max(maxFactorialOperand, n);
+			double digits = MathUtils.factorialDigits(n, node.getCount());
+			exactOperation(digits);
+			return new Magnitude(digits, Double.NaN);
+		} else if (symbol.equals("%")) {
+			return new Magnitude(operand.log10 - 2.0 * node.getCount(), operand.value / Math.pow(100, node.getCount()));
+		}
+		return operand;
+	}
+
+	private static class Magnitude {
+		/**
+		 * Estimation of values whose size is not known statically (constants, results of functions)
+		 */
+		static final Magnitude UNKNOWN = new Magnitude(1, Double.NaN);
+
+		/**
+		 * log10 of absolute value (upper bound)
+		 */
+		final double log10;
+
+		/**
+		 * Value itself if it is known, {@code NaN} otherwise
+		 */
+		final double value;
+
+		Magnitude(double log10, double value) {
+			this.log10 = log10;
+			this.value = value;
+		}
+
+		static Magnitude ofNumber(String number) {
+			int dot = number.indexOf('.');
+			int integerDigits = dot == -1 ? number.length() : dot;
+			if (integerDigits > 300)
+				return new Magnitude(integerDigits, Double.NaN);
+			try {
+				double value = Double.parseDouble(number);
+				return new Magnitude(value == 0 ? 0 : Math.max(0, Math.log10(Math.abs(value))), value);
+			} catch (NumberFormatException e) {
+				return UNKNOWN;
+			}
+		}
+	}
+
+}
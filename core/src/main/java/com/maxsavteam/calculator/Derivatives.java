@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Value of expression and its partial derivatives by variables at one point
+ *
+ * @see CompiledExpression#gradient(java.util.List, Map)
+ */
+public class Derivatives {
+
+	private final BigDecimal value;
+	private final Map<String, BigDecimal> partials;
+
+	Derivatives(BigDecimal value, Map<String, BigDecimal> partials) {
+		this.value = value;
+		this.partials = partials;
+	}
+
+	/**
+	 * @return Value of expression rounded in the same way as by {@link CompiledExpression#evaluate(Map)}
+	 */
+	public BigDecimal getValue() {
+		return value;
+	}
+
+	/**
+	 * @return Partial derivative by variable
+	 * @throws IllegalArgumentException if derivative by variable was not requested
+	 */
+	public BigDecimal getPartial(String variable) {
+		BigDecimal partial = partials.get(variable);
+		if (partial == null)
+			throw new IllegalArgumentException("Derivative by " + variable + " was not computed");
+		return partial;
+	}
+
+	/**
+	 * @return Partial derivatives by variables in order in which variables were requested
+	 */
+	public Map<String, BigDecimal> getPartials() {
+		return partials;
+	}
+
+	@Override
+	public String toString() {
+		return "Derivatives{value=" + value + ", partials=" + partials + "}";
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.BracketsNode;
+import com.maxsavteam.calculator.tree.nodes.ConstantNode;
+import com.maxsavteam.calculator.tree.nodes.FunctionNode;
+import com.maxsavteam.calculator.tree.nodes.NegativeNumberNode;
+import com.maxsavteam.calculator.tree.nodes.NumberNode;
+import com.maxsavteam.calculator.tree.nodes.OperatorNode;
+import com.maxsavteam.calculator.tree.nodes.SuffixOperatorNode;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+import com.maxsavteam.calculator.utils.MathUtils;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Forward-mode automatic differentiation.<br>
+ * Every node is evaluated to dual number: value and its partial derivatives by requested variables,
+ * which are propagated together with chain rule, so one pass over tree gives value and all partials.
+ * Values are computed as in regular evaluation before answer is rounded, derivatives are computed with precision of functions
+ * instead of finite differences. Functions are differentiated with {@link FunctionHandle#getDerivative()}.
+ * Lists, factorials, user-defined functions and custom resolvers are not supported.
+ * Variables are taken from current {@link EvaluationContext}.
+ */
+class DualEvaluator {
+
+	private final Calculator calculator;
+	private final List<String> variables;
+	private final MathContext mc = new MathContext(MathUtils.getHighRoundScale());
+
+	DualEvaluator(Calculator calculator, List<String> variables) {
+		this.calculator = calculator;
+		this.variables = variables;
+	}
+
+	/**
+	 * @throws CalculationException {@link CalculationException#NOT_DIFFERENTIABLE} if expression has unsupported parts
+	 */
+	Dual evaluate(TreeNode node) {
+		if (!calculator.usesDefaultResolvers())
+			throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, "custom resolvers are set");
+		return dual(node);
+	}
+
+	private Dual dual(TreeNode node) {
+		EvaluationContext.checkCancelled();
+		if (node instanceof NumberNode)
+			return constant(single(calculator.evaluateNode(node)));
+		if (node instanceof ConstantNode)
+			return variable((ConstantNode) node);
+		if (node instanceof NegativeNumberNode && node.getFirstChild() != null) {
+			Dual operand = dual(node.getFirstChild());
+			return operand.scale(BigDecimal.ONE.negate(), operand.value.negate(), mc);
+		}
+		if (node instanceof BracketsNode && node.getFirstChild() != null)
+			return brackets((BracketsNode) node);
+		if (node instanceof OperatorNode)
+			return operator((OperatorNode) node);
+		if (node instanceof SuffixOperatorNode && node.getFirstChild() != null)
+			return suffix((SuffixOperatorNode) node);
+		if (node instanceof FunctionNode)
+			return function((FunctionNode) node);
+		throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, node.getClass().getSimpleName());
+	}
+
+	private Dual variable(ConstantNode node) {
+		BigDecimal value = single(calculator.resolveConstant(node));
+		int index = variables.indexOf(node.getName());
+		if (index == -1)
+			return constant(value);
+		BigDecimal[] partials = zeros();
+		partials[index] = BigDecimal.ONE;
+		return new Dual(value, partials);
+	}
+
+	private Dual brackets(BracketsNode node) {
+		Dual operand = dual(node.getFirstChild());
+		if (node.getType() == 1)
+			return operand;
+		// rounding functions are piecewise constant
+		return constant(Calculator.defaultBracketsResolver.resolve(node.getType(), operand.value));
+	}
+
+	private Dual operator(OperatorNode node) {
+		if (node.getFirstChild() == null || node.getSecondChild() == null)
+			throw new CalculationException(CalculationException.INVALID_BINARY_OPERATOR);
+		char operator = node.getOperator();
+		Dual a = dual(node.getFirstChild());
+		Dual b = dual(node.getSecondChild());
+		TreeNode rightNode = node.getSecondChild();
+		if (rightNode instanceof SuffixOperatorNode && ((SuffixOperatorNode) rightNode).getOperator().getSymbol().equals("%"))
+			return percent(operator, a, b);
+		BigDecimal value = Calculator.defaultResolver.calculate(operator, a.value, b.value);
+		switch (operator) {
+			case '+':
+				return a.combine(BigDecimal.ONE, b, BigDecimal.ONE, value, mc);
+			case '-':
+				return a.combine(BigDecimal.ONE, b, BigDecimal.ONE.negate(), value, mc);
+			case '*':
+				return a.combine(b.value, b, a.value, value, mc);
+			case '/': {
+				// (a/b)' = a'/b - a*b'/b^2
+				BigDecimal reciprocal = BigDecimal.ONE.divide(b.value, mc);
+				return a.combine(reciprocal, b, a.value.multiply(reciprocal, mc).multiply(reciprocal, mc).negate(), value, mc);
+			}
+			case '^':
+				return power(a, b, value);
+			default:
+				throw new CalculationException(CalculationException.INVALID_BINARY_OPERATOR);
+		}
+	}
+
+	/**
+	 * (a^b)' = b * a^(b-1) * a' + a^b * ln(a) * b'
+	 */
+	private Dual power(Dual a, Dual b, BigDecimal value) {
+		BigDecimal byBase;
+		if (a.isConstant())
+			byBase = BigDecimal.ZERO;
+		else if (b.value.compareTo(BigDecimal.ONE) == 0)
+			byBase = BigDecimal.ONE;
+		else
+			byBase = b.value.multiply(MathUtils.pow(a.value, b.value.subtract(BigDecimal.ONE)), mc);
+		BigDecimal byExponent = b.isConstant() ? BigDecimal.ZERO : value.multiply(MathUtils.ln(a.value), mc);
+		return a.combine(byBase, b, byExponent, value, mc);
+	}
+
+	/**
+	 * @param p Percent, which is already divided by 100
+	 */
+	private Dual percent(char operator, Dual a, Dual p) {
+		BigDecimal value = Calculator.defaultResolver.calculatePercent(operator, a.value, p.value);
+		switch (operator) {
+			case '+':
+				// a + a*p
+				return a.combine(BigDecimal.ONE.add(p.value), p, a.value, value, mc);
+			case '-':
+				return a.combine(BigDecimal.ONE.subtract(p.value), p, a.value.negate(), value, mc);
+			case '*':
+				return a.combine(p.value, p, a.value, value, mc);
+			case '/': {
+				BigDecimal reciprocal = BigDecimal.ONE.divide(p.value, mc);
+				return a.combine(reciprocal, p, a.value.multiply(reciprocal, mc).multiply(reciprocal, mc).negate(), value, mc);
+			}
+			default:
+				throw new CalculationException(CalculationException.INVALID_OPERATOR_FOR_PERCENT);
+		}
+	}
+
+	private Dual suffix(SuffixOperatorNode node) {
+		Dual operand = dual(node.getFirstChild());
+		String symbol = node.getOperator().getSymbol();
+		if (!symbol.equals("%") && !symbol.equals(Calculator.DEGREE_SIGN) && !symbol.equals(Calculator.GRAD_SIGN))
+			throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, "suffix operator " + symbol);
+		// these operators are multiplications by constant factor
+		BigDecimal factor = calculator.resolveSuffix(node, BigDecimal.ONE);
+		return operand.scale(factor, calculator.resolveSuffix(node, operand.value), mc);
+	}
+
+	private Dual function(FunctionNode node) {
+		FunctionHandle handle = node.getHandle();
+		if (handle == null)
+			handle = calculator.getFunctionRegistry().get(node.getFunctionName());
+		FunctionHandle.Derivative derivative = handle == null ? null : handle.getDerivative();
+		if (derivative == null)
+			throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, "function " + node.getFunctionName());
+		TreeNode suffixNode = node.getSuffixNode();
+		TreeNode operandNode = node.getFirstChild();
+		if (suffixNode == null && operandNode == null)
+			throw new CalculationException(CalculationException.FUNCTION_SUFFIX_AND_OPERAND_NULL);
+		Dual suffix = suffixNode == null ? null : dual(suffixNode);
+		Dual argument;
+		if (operandNode == null || (suffix != null && handle.getArity() == 1)) {
+			argument = suffix;
+			suffix = null;
+		} else {
+			argument = dual(operandNode);
+		}
+		if (suffix != null && !suffix.isConstant())
+			throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, "parameter of " + node.getFunctionName() + " is variable");
+		BigDecimal parameter = suffix == null ? null : suffix.value;
+		BigDecimal value = handle.apply(parameter, argument.value);
+		if (argument.isConstant())
+			return constant(value);
+		return argument.scale(derivative.apply(parameter, argument.value, value), value, mc);
+	}
+
+	private static BigDecimal single(NumberList result) {
+		if (!result.isSingleNumber())
+			throw new CalculationException(CalculationException.NOT_DIFFERENTIABLE, "lists");
+		return result.getSingleNumberIfTrue();
+	}
+
+	private Dual constant(BigDecimal value) {
+		return new Dual(value, zeros());
+	}
+
+	private BigDecimal[] zeros() {
+		BigDecimal[] partials = new BigDecimal[variables.size()];
+		Arrays.fill(partials, BigDecimal.ZERO);
+		return partials;
+	}
+
+	/**
+	 * Value and partial derivatives by variables
+	 */
+	static final class Dual {
+		final BigDecimal value;
+		final BigDecimal[] partials;
+
+		Dual(BigDecimal value, BigDecimal[] partials) {
+			this.value = value;
+			this.partials = partials;
+		}
+
+		boolean isConstant() {
+			for (BigDecimal partial : partials)
+				if (partial.signum() != 0)
+					return false;
+			return true;
+		}
+
+		/**
+		 * @return Dual number with given value whose partials are {@code factor * partials of this}
+		 */
+		Dual scale(BigDecimal factor, BigDecimal value, MathContext mc) {
+			BigDecimal[] result = new BigDecimal[partials.length];
+			for (int i = 0; i < partials.length; i++)
+				result[i] = partials[i].multiply(factor, mc);
+			return new Dual(value, result);
+		}
+
+		/**
+		 * @return Dual number with given value whose partials are {@code factor * partials of this + otherFactor * partials of other}
+		 */
+		Dual combine(BigDecimal factor, Dual other, BigDecimal otherFactor, BigDecimal value, MathContext mc) {
+			BigDecimal[] result = new BigDecimal[partials.length];
+			for (int i = 0; i < partials.length; i++) {
+				BigDecimal partial = partials[i].signum() == 0 ? BigDecimal.ZERO : partials[i].multiply(factor, mc);
+				if (other.partials[i].signum() != 0)
+					partial = partial.add(other.partials[i].multiply(otherFactor, mc), mc);
+				result[i] = partial;
+			}
+			return new Dual(value, result);
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+/**
+ * Points of graph of function of one variable, sorted by x.<br>
+ * Points where function is not defined have NaN as y, so graph should be broken there.
+ *
+ * @see CompiledExpression#sample(String, double, double, int)
+ */
+public class PlotSamples {
+
+	private final double[] x;
+	private final double[] y;
+
+	PlotSamples(double[] x, double[] y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * @return Values of variable in ascending order. Array is not copied.
+	 */
+	public double[] getX() {
+		return x;
+	}
+
+	/**
+	 * @return Values of function. Array is not copied.
+	 */
+	public double[] getY() {
+		return y;
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import java.math.BigDecimal;
+
+/**
+ * Root of equation {@code f(x) = 0} which was found by {@link CompiledExpression#solve(String, double, double, int)}
+ */
+public class Solution {
+
+	private final BigDecimal root;
+	private final int iterations;
+	private final BigDecimal residual;
+
+	Solution(BigDecimal root, int iterations, BigDecimal residual) {
+		this.root = root;
+		this.iterations = iterations;
+		this.residual = residual;
+	}
+
+	public BigDecimal getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return Count of iterations of both search in {@code double} arithmetic and polishing in {@link BigDecimal}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return Value of expression at root
+	 */
+	public BigDecimal getResidual() {
+		return residual;
+	}
+
+	@Override
+	public String toString() {
+		return "Solution{root=" + root + ", iterations=" + iterations + ", residual=" + residual + "}";
+	}
+
+}
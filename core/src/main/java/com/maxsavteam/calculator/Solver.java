@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds root of expression in bracket where it changes sign.<br>
+ * Root is searched with Brent's method in {@code double} arithmetic, which combines bisection, secant and
+ * inverse quadratic interpolation, so it never converges slower than bisection. Then root is polished
+ * in {@link BigDecimal} arithmetic with Newton's steps. Derivative is given or computed with automatic differentiation,
+ * if expression cannot be differentiated, secant steps are used.
+ * Every step is safeguarded by bracket: step which leaves bracket is replaced with bisection.
+ * Sign also changes at poles and jumps, such brackets are detected by value of expression which does not shrink.
+ */
+class Solver {
+
+	private static final int MAX_DOUBLE_ITERATIONS = 200;
+
+	private static final int MAX_POLISH_ITERATIONS = 100;
+
+	private static final int MAX_BRACKET_EXPANSIONS = 8;
+
+	private static final double EPSILON = Math.ulp(1.0);
+
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	private final Calculator calculator;
+	private final CompiledExpression expression;
+	private final String variable;
+	private final TreeNode derivative;
+	private final CancellationToken cancellationToken;
+
+	private int iterations;
+
+	private boolean differentiable = true;
+
+	/**
+	 * @param derivative Derivative of expression by variable or {@code null} to differentiate expression automatically
+	 */
+	Solver(Calculator calculator, CompiledExpression expression, String variable, TreeNode derivative,
+	       CancellationToken cancellationToken) {
+		this.calculator = calculator;
+		this.expression = expression;
+		this.variable = variable;
+		this.derivative = derivative;
+		this.cancellationToken = cancellationToken;
+	}
+
+	Solution solve(double lower, double upper, int precision) {
+		double[] bracket = brent(lower, upper);
+		EvaluationContext previous = EvaluationContext.enter(calculator.createContext(cancellationToken));
+		try {
+			return polish(new BigDecimal(bracket[0]), new BigDecimal(bracket[1]), precision);
+		} finally {
+			EvaluationContext.restore(previous);
+		}
+	}
+
+	/**
+	 * @return Bracket {@code [a, b]} of root, which is as narrow as {@code double} arithmetic allows
+	 */
+	private double[] brent(double a, double b) {
+		double fa = evaluate(a);
+		double fb = evaluate(b);
+		if (fa == 0)
+			return new double[]{a, a};
+		if (fb == 0)
+			return new double[]{b, b};
+		if (Math.signum(fa) == Math.signum(fb))
+			throw new CalculationException(CalculationException.ROOT_NOT_BRACKETED,
+					"f(" + a + ") = " + fa + ", f(" + b + ") = " + fb);
+		double initialResidual = Math.min(Math.abs(fa), Math.abs(fb));
+		double c = a;
+		double fc = fa;
+		double d = b - a;
+		double e = d;
+		for (int i = 0; i < MAX_DOUBLE_ITERATIONS; i++) {
+			if (Math.signum(fb) == Math.signum(fc)) {
+				c = a;
+				fc = fa;
+				d = b - a;
+				e = d;
+			}
+			if (Math.abs(fc) < Math.abs(fb)) {
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+			}
+			double tolerance = 2 * EPSILON * Math.abs(b) + Double.MIN_NORMAL;
+			double middle = (c - b) / 2;
+			if (Math.abs(middle) <= tolerance || fb == 0)
+				return checkedBracket(b, fb, c, initialResidual);
+			iterations++;
+			if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+				// interpolation
+				double s = fb / fa;
+				double p;
+				double q;
+				if (a == c) {
+					p = 2 * middle * s;
+					q = 1 - s;
+				} else {
+					double r = fb / fc;
+					double t = fa / fc;
+					p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+					q = (t - 1) * (r - 1) * (s - 1);
+				}
+				if (p > 0)
+					q = -q;
+				else
+					p = -p;
+				if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+					e = d;
+					d = p / q;
+				} else {
+					d = middle;
+					e = d;
+				}
+			} else {
+				d = middle;
+				e = d;
+			}
+			a = b;
+			fa = fb;
+			b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+			fb = evaluate(b);
+		}
+		return checkedBracket(b, fb, c, initialResidual);
+	}
+
+	/**
+	 * At root, value of expression is much smaller than at ends of initial bracket.
+	 * Sign also changes at poles and jumps, but value there does not shrink.
+	 *
+	 * @throws CalculationException {@link CalculationException#NOT_CONVERGED} if bracket contains discontinuity instead of root
+	 */
+	private static double[] checkedBracket(double b, double fb, double c, double initialResidual) {
+		if (fb != 0 && !(Math.abs(fb) < initialResidual))
+			throw new CalculationException(CalculationException.NOT_CONVERGED,
+					"expression changes sign at discontinuity near " + b + ", value there is " + fb);
+		return new double[]{Math.min(b, c), Math.max(b, c)};
+	}
+
+	private double evaluate(double x) {
+		double[] out = new double[1];
+		expression.evaluateBatch(Map.of(variable, new double[]{x}), out, cancellationToken);
+		if (Double.isNaN(out[0]))
+			throw new CalculationException(CalculationException.UNDEFINED, "expression is not defined at " + x);
+		return out[0];
+	}
+
+	/**
+	 * Narrows bracket in {@link BigDecimal} arithmetic until step is less than {@code 10^-precision} of root
+	 */
+	private Solution polish(BigDecimal lower, BigDecimal upper, int precision) {
+		MathContext mc = new MathContext(precision + 5);
+		BigDecimal fLower = evaluate(lower);
+		BigDecimal fUpper = evaluate(upper);
+		// values of double arithmetic may differ from precise ones, so bracket is widened until it contains root
+		BigDecimal width = upper.subtract(lower).max(lower.abs().max(BigDecimal.ONE).movePointLeft(15));
+		for (int i = 0; i < MAX_BRACKET_EXPANSIONS && fLower.signum() * fUpper.signum() > 0; i++) {
+			iterations++;
+			lower = lower.subtract(width);
+			upper = upper.add(width);
+			width = width.multiply(TWO);
+			fLower = evaluate(lower);
+			fUpper = evaluate(upper);
+		}
+		if (fLower.signum() == 0)
+			return solution(lower, precision);
+		if (fUpper.signum() == 0)
+			return solution(upper, precision);
+		if (fLower.signum() == fUpper.signum())
+			throw new CalculationException(CalculationException.NOT_CONVERGED, "root cannot be bracketed precisely");
+
+		BigDecimal x = fLower.abs().compareTo(fUpper.abs()) < 0 ? lower : upper;
+		BigDecimal fx = x == lower ? fLower : fUpper;
+		BigDecimal previous = x == lower ? upper : lower;
+		BigDecimal fPrevious = x == lower ? fUpper : fLower;
+		for (int i = 0; i < MAX_POLISH_ITERATIONS && fx.signum() != 0; i++) {
+			iterations++;
+			BigDecimal tolerance = x.abs().max(BigDecimal.ONE).movePointLeft(precision);
+			BigDecimal next = step(x, fx, previous, fPrevious, mc);
+			if (next != null && next.subtract(x).abs().compareTo(tolerance) <= 0) {
+				x = next;
+				break;
+			}
+			if (next == null || next.compareTo(lower) <= 0 || next.compareTo(upper) >= 0)
+				next = lower.add(upper).divide(TWO, mc);
+			BigDecimal fNext = evaluate(next);
+			if (fNext.signum() == fLower.signum()) {
+				lower = next;
+				fLower = fNext;
+			} else {
+				upper = next;
+				fUpper = fNext;
+			}
+			previous = x;
+			fPrevious = fx;
+			x = next;
+			fx = fNext;
+			if (upper.subtract(lower).compareTo(tolerance) <= 0)
+				break;
+		}
+		return solution(x, precision);
+	}
+
+	/**
+	 * @return Newton's step if derivative is known, secant step otherwise or {@code null} if step is undefined
+	 */
+	private BigDecimal step(BigDecimal x, BigDecimal fx, BigDecimal previous, BigDecimal fPrevious, MathContext mc) {
+		BigDecimal slope = null;
+		if (derivative != null)
+			slope = evaluate(derivative, x);
+		else if (differentiable)
+			slope = differentiate(x);
+		if (slope == null) {
+			BigDecimal dx = x.subtract(previous);
+			if (dx.signum() == 0)
+				return null;
+			slope = fx.subtract(fPrevious).divide(dx, mc);
+		}
+		if (slope.signum() == 0)
+			return null;
+		return x.subtract(fx.divide(slope, mc), mc);
+	}
+
+	/**
+	 * @return Derivative of expression at {@code x} or {@code null} if it cannot be computed
+	 */
+	private BigDecimal differentiate(BigDecimal x) {
+		EvaluationContext.current().setVariables(Map.of(variable, NumberList.of(x)));
+		try {
+			return new DualEvaluator(calculator, List.of(variable)).evaluate(expression.getRoot()).partials[0];
+		} catch (CalculationException e) {
+			if (e.getErrorCode() == CalculationException.NOT_DIFFERENTIABLE)
+				differentiable = false;
+			return null;
+		}
+	}
+
+	private Solution solution(BigDecimal x, int precision) {
+		BigDecimal root = x.round(new MathContext(precision)).stripTrailingZeros();
+		return new Solution(root, iterations, evaluate(root));
+	}
+
+	private BigDecimal evaluate(BigDecimal x) {
+		return evaluate(expression.getRoot(), x);
+	}
+
+	private BigDecimal evaluate(TreeNode node, BigDecimal x) {
+		EvaluationContext.current().setVariables(Map.of(variable, NumberList.of(x)));
+		NumberList result = calculator.evaluateNode(node);
+		if (!result.isSingleNumber())
+			throw new CalculationException(CalculationException.FUNCTIONS_OPERANDS_CANNOT_BE_LISTS, "value of expression is list");
+		return result.getSingleNumberIfTrue();
+	}
+
+}
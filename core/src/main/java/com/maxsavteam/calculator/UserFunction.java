@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+import com.maxsavteam.calculator.utils.MathUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Function defined by user with expression, e.g. "f(x;y)=x^2+y".<br>
+ * Function may have several definitions, whose parameters are numbers, e.g. "fib(0)=0", "fib(1)=1" and "fib(n)=fib(n-1)+fib(n-2)".
+ * Definitions with more numeric parameters are tried first.
+ * Bodies are parsed once, when they are defined.
+ *
+ * @see Calculator#defineFunction(String, boolean)
+ */
+class UserFunction {
+
+	/**
+	 * When memo table grows larger, least recently used results are evicted
+	 */
+	static final int MEMO_CAPACITY = 10_000;
+
+	private static final Comparator<Definition> specificFirst =
+			Comparator.comparingInt((Definition d) -> d.literalCount).reversed();
+
+	private final String name;
+	private final int arity;
+	private final Calculator calculator;
+	private final List<Definition> definitions = new ArrayList<>();
+	private Map<MemoKey, BigDecimal> memo;
+
+	UserFunction(String name, int arity, Calculator calculator) {
+		this.name = name;
+		this.arity = arity;
+		this.calculator = calculator;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	int getArity() {
+		return arity;
+	}
+
+	/**
+	 * Adds definition. Definition with the same numeric parameters is replaced.
+	 */
+	void define(Definition definition) {
+		definitions.removeIf(d -> d.hasSamePattern(definition));
+		definitions.add(definition);
+		// stable sort keeps order of definitions with the same count of numeric parameters
+		definitions.sort(specificFirst);
+		clearMemo();
+	}
+
+	List<Definition> getDefinitions() {
+		return Collections.unmodifiableList(definitions);
+	}
+
+	void setMemoized(boolean memoized) {
+		if (!memoized) {
+			memo = null;
+		} else if (memo == null) {
+			memo = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<MemoKey, BigDecimal> eldest) {
+					return size() > MEMO_CAPACITY;
+				}
+			});
+		}
+	}
+
+	boolean isMemoized() {
+		return memo != null;
+	}
+
+	void clearMemo() {
+		if (memo != null)
+			memo.clear();
+	}
+
+	FunctionHandle createHandle(boolean pure, FunctionHandle.CostHint costHint) {
+		FunctionHandle.Builder builder = new FunctionHandle.Builder(name)
+				.setPure(pure)
+				.setCostHint(costHint);
+		if (arity == 1)
+			builder.setFunction(x -> call(new BigDecimal[]{x}));
+		else
+			builder.setMultiArgumentFunction(arity, this::call);
+		return builder.build();
+	}
+
+	BigDecimal call(BigDecimal[] arguments) {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			EvaluationContext previous = EvaluationContext.enter(calculator.createContext(null));
+			try {
+				return call(arguments);
+			} finally {
+				EvaluationContext.restore(previous);
+			}
+		}
+		Map<MemoKey, BigDecimal> memo = this.memo;
+		MemoKey key = null;
+		if (memo != null) {
+			key = new MemoKey(arguments, MathUtils.getHighRoundScale(), context.getAngleMode());
+			BigDecimal cached = memo.get(key);
+			if (cached != null)
+				return cached;
+		}
+		Definition definition = findDefinition(arguments);
+		Map<String, NumberList> variables = new HashMap<>();
+		for (int i = 0; i < arity; i++) {
+			if (definition.parameters[i] != null)
+				variables.put(definition.parameters[i], NumberList.of(arguments[i]));
+		}
+		NumberList result;
+		Map<String, NumberList> callerVariables = context.enterCall(variables);
+		try {
+			result = calculator.evaluateNode(definition.body);
+		} catch (StackOverflowError e) {
+			// thread has smaller stack than MAX_CALL_DEPTH needs
+			throw new CalculationException(CalculationException.CALL_DEPTH_EXCEEDED);
+		} finally {
+			context.exitCall(callerVariables);
+		}
+		if (!result.isSingleNumber())
+			throw new CalculationException(CalculationException.FUNCTIONS_OPERANDS_CANNOT_BE_LISTS, name + " returned list");
+		BigDecimal value = result.getSingleNumberIfTrue();
+		if (key != null)
+			memo.put(key, value);
+		return value;
+	}
+
+	private Definition findDefinition(BigDecimal[] arguments) {
+		for (Definition definition : definitions) {
+			if (definition.matches(arguments))
+				return definition;
+		}
+		throw new CalculationException(CalculationException.UNDEFINED, name + Arrays.toString(arguments));
+	}
+
+	static class Definition {
+		/**
+		 * Names of parameters, {@code null} where parameter is number
+		 */
+		final String[] parameters;
+
+		/**
+		 * Numeric parameters, {@code null} where parameter is variable
+		 */
+		final BigDecimal[] literals;
+
+		final int literalCount;
+
+		final TreeNode body;
+
+		Definition(String[] parameters, BigDecimal[] literals, TreeNode body) {
+			this.parameters = parameters;
+			this.literals = literals;
+			this.body = body;
+			this.literalCount = (int) Arrays.stream(literals).filter(Objects::nonNull).count();
+		}
+
+		boolean matches(BigDecimal[] arguments) {
+			for (int i = 0; i < literals.length; i++) {
+				if (literals[i] != null && literals[i].compareTo(arguments[i]) != 0)
+					return false;
+			}
+			return true;
+		}
+
+		boolean hasSamePattern(Definition other) {
+			for (int i = 0; i < literals.length; i++) {
+				BigDecimal a = literals[i];
+				BigDecimal b = other.literals[i];
+				if (a == null ? b != null : b == null || a.compareTo(b) != 0)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private static final class MemoKey {
+		private final BigDecimal[] arguments;
+		private final int precision;
+		private final AngleMode angleMode;
+		private final int hash;
+
+		MemoKey(BigDecimal[] arguments, int precision, AngleMode angleMode) {
+			this.arguments = new BigDecimal[arguments.length];
+			for (int i = 0; i < arguments.length; i++)
+				this.arguments[i] = arguments[i].stripTrailingZeros();
+			this.precision = precision;
+			this.angleMode = angleMode;
+			this.hash = 31 * (31 * Arrays.hashCode(this.arguments) + precision) + angleMode.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof MemoKey))
+				return false;
+			MemoKey memoKey = (MemoKey) o;
+			return precision == memoKey.precision
+					&& angleMode == memoKey.angleMode
+					&& Arrays.equals(arguments, memoKey.arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -55,6 +55,18 @@ public class CalculationException extends RuntimeException {
 	public static final int INVALID_VALUE_FOR_ASEC_ACSC = 30;
 	public static final int ROOT_OF_NEGATIVE_NUMBER = 31;
 	public static final int ROOT_OF_NEGATIVE_OR_ZERO_DEGREE = 32;
+	public static final int EVALUATION_CANCELLED = 33;
+	public static final int EVALUATION_TIME_LIMIT_EXCEEDED = 34;
+	public static final int DIGIT_LIMIT_EXCEEDED = 35;
+	public static final int INVALID_FUNCTION_DEFINITION = 36;
+	public static final int TOO_MANY_ARGUMENTS = 37;
+	public static final int CALL_DEPTH_EXCEEDED = 38;
+	public static final int LIST_TOO_LARGE = 39;
+	public static final int INVALID_VARIABLE = 40;
+	public static final int LISTS_SIZES_MISMATCH = 41;
+	public static final int NOT_CONVERGED = 42;
+	public static final int ROOT_NOT_BRACKETED = 43;
+	public static final int NOT_DIFFERENTIABLE = 44;
 
 	private static final Map<Integer, String> messagesMap = Map.ofEntries(
 			entry(INVALID_BINARY_OPERATOR, "Binary operator does not have left or right operand or both"),
@@ -87,29 +99,80 @@ public class CalculationException extends RuntimeException {
 			entry(INVALID_VALUE_FOR_COSECANT, "Invalid value for cosecant"),
 			entry(INVALID_VALUE_FOR_ASEC_ACSC, "Invalid value for asec and acsc"),
 			entry(ROOT_OF_NEGATIVE_NUMBER, "Root of negative number"),
-			entry(ROOT_OF_NEGATIVE_OR_ZERO_DEGREE, "Root of negative or zero degree")
+			entry(ROOT_OF_NEGATIVE_OR_ZERO_DEGREE, "Root of negative or zero degree"),
+			entry(EVALUATION_CANCELLED, "Evaluation was cancelled"),
+			entry(EVALUATION_TIME_LIMIT_EXCEEDED, "Evaluation time limit exceeded"),
+			entry(DIGIT_LIMIT_EXCEEDED, "Result would have too many digits"),
+			entry(INVALID_FUNCTION_DEFINITION, "Invalid function definition"),
+			entry(TOO_MANY_ARGUMENTS, "Too many arguments"),
+			entry(CALL_DEPTH_EXCEEDED, "Too deep recursion of functions"),
+			entry(LIST_TOO_LARGE, "List is too large"),
+			entry(INVALID_VARIABLE, "Invalid variable"),
+			entry(LISTS_SIZES_MISMATCH, "Lists have different sizes"),
+			entry(NOT_CONVERGED, "Numeric method did not converge"),
+			entry(ROOT_NOT_BRACKETED, "Expression has the same sign at both ends of interval"),
+			entry(NOT_DIFFERENTIABLE, "Expression cannot be differentiated")
 	);
 
+	private static final ThreadLocal<Boolean> stackTraceDisabled = new ThreadLocal<>();
+
 	private final int errorCode;
 
 	private final String additionalMessage;
 
+	private final int position;
+
+	/**
+	 * Enables or disables capturing of stack traces for exceptions created in current thread.
+	 * Filling in stack trace is much more expensive than evaluation of most expressions,
+	 * so {@link com.maxsavteam.calculator.Calculator#tryCalculate(String)} disables it.
+	 */
+	public static void setStackTraceEnabled(boolean enabled) {
+		if (enabled)
+			stackTraceDisabled.remove();
+		else
+			stackTraceDisabled.set(Boolean.TRUE);
+	}
+
+	public static boolean isStackTraceEnabled() {
+		return stackTraceDisabled.get() == null;
+	}
+
 	public int getErrorCode() {
 		return errorCode;
 	}
 
+	/**
+	 * @return Position in expression where error occurred or -1 if it is unknown
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		if (!isStackTraceEnabled())
+			return this;
+		return super.fillInStackTrace();
+	}
+
 	@Override
 	public String getMessage() {
-		if (errorCode == NUMBER_FORMAT_EXCEPTION)
+		if (errorCode == NUMBER_FORMAT_EXCEPTION && getCause() != null)
 			return "NumberFormatException: " + getCause().getMessage();
 		if (messagesMap.containsKey(errorCode))
 			return messagesMap.get(errorCode) + (additionalMessage == null ? "" : ": " + additionalMessage);
 		return additionalMessage;
 	}
 
-	public CalculationException(int error, String message) {
+	public CalculationException(int error, String message, int position) {
 		errorCode = error;
 		additionalMessage = message;
+		this.position = position;
+	}
+
+	public CalculationException(int error, String message) {
+		this(error, message, -1);
 	}
 
 	public CalculationException(int error) {
@@ -120,5 +183,6 @@ public class CalculationException extends RuntimeException {
 		super(cause);
 		errorCode = error;
 		additionalMessage = null;
+		position = -1;
 	}
 }
@@ -21,4 +21,8 @@ public class TreeBuildingException extends CalculationException {
 	public TreeBuildingException(int error) {
 		super(error);
 	}
+
+	public TreeBuildingException(int error, int position) {
+		super(error, null, position);
+	}
 }
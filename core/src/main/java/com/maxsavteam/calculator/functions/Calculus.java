@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.functions;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.LazyNumberList;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import com.maxsavteam.calculator.utils.Quadrature;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+
+/**
+ * Special forms of calculus: "sigma(expr;i;a;b;step)" and "integrate(expr;x;a;b)".
+ * Expression is parsed once and evaluated for every value of variable.
+ */
+class Calculus {
+
+	/**
+	 * Results of integrals have at most this count of significant digits, which is precision of {@code double}
+	 */
+	private static final int MAX_INTEGRAL_DIGITS = 15;
+
+	/**
+	 * sigma(expr;i;a;b) or sigma(expr;i;a;b;step). Terms are evaluated lazily and added in parallel chunks
+	 * with exact {@link BigDecimal} arithmetic.
+	 */
+	static NumberList sigma(Evaluator evaluator, List<TreeNode> arguments) {
+		LazyNumberList terms = Generators.seq("sigma", evaluator, arguments);
+		return NumberList.of(terms.reduce(BigDecimal.ZERO, BigDecimal::add));
+	}
+
+	/**
+	 * integrate(expr;x;a;b). Integrand is evaluated in {@code double} arithmetic with adaptive Gauss-Kronrod rule.
+	 * Result is rounded to digits which are guaranteed by estimation of error.
+	 *
+	 * @see Quadrature
+	 */
+	static NumberList integrate(Evaluator evaluator, List<TreeNode> arguments) {
+		if (arguments.size() < 4)
+			throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, "integrate");
+		if (arguments.size() > 4)
+			throw new CalculationException(CalculationException.TOO_MANY_ARGUMENTS, "integrate");
+		TreeNode expression = arguments.get(0);
+		String variable = Generators.variableName(arguments.get(1));
+		double a = Generators.evaluateNumber(evaluator, arguments.get(2)).doubleValue();
+		double b = Generators.evaluateNumber(evaluator, arguments.get(3)).doubleValue();
+		Quadrature.Result result = Quadrature.integrate((x, y) -> evaluator.evaluateBatch(expression, variable, x, y), a, b);
+		double value = result.getValue();
+		if (value == 0)
+			return NumberList.of(BigDecimal.ZERO);
+		int digits = MAX_INTEGRAL_DIGITS;
+		if (result.getErrorEstimate() > 0)
+			digits = (int) Math.max(1, Math.min(MAX_INTEGRAL_DIGITS, Math.floor(Math.log10(Math.abs(value) / result.getErrorEstimate()))));
+		return NumberList.of(new BigDecimal(value).round(new MathContext(digits)));
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.functions;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+
+import java.util.Map;
+
+/**
+ * Evaluates nodes of tree for special forms, which receive their arguments unevaluated
+ *
+ * @see FunctionHandle.SpecialForm
+ */
+public interface Evaluator {
+
+	/**
+	 * @throws CalculationException if node cannot be evaluated
+	 */
+	NumberList evaluate(TreeNode node);
+
+	/**
+	 * Evaluates node with given variables instead of variables of current scope
+	 *
+	 * @throws CalculationException if node cannot be evaluated
+	 */
+	NumberList evaluate(TreeNode node, Map<String, NumberList> variables);
+
+	/**
+	 * Evaluates node for many values of one variable in {@code double} arithmetic.
+	 * Other variables of current scope are visible.
+	 *
+	 * @param values Values of variable
+	 * @param out    Array for results, which has the same length as values
+	 * @throws CalculationException error of the first value for which node cannot be evaluated
+	 */
+	void evaluateBatch(TreeNode node, String variable, double[] values, double[] out);
+
+	/**
+	 * @return Variables of current scope (parameters of user-defined function which is being evaluated)
+	 */
+	Map<String, NumberList> getVariables();
+
+}
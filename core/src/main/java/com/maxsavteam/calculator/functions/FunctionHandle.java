@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.functions;
+
+import com.maxsavteam.calculator.AngleMode;
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.LazyNumberList;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Function registered in {@link FunctionRegistry}.<br>
+ * Handle is created once and bound to {@link com.maxsavteam.calculator.tree.nodes.FunctionNode} when tree is built,
+ * so evaluation calls implementation directly without looking function up by name.
+ */
+public final class FunctionHandle {
+
+	/**
+	 * Arity of functions which take any count of arguments
+	 */
+	public static final int VARIADIC = -1;
+
+	public enum ListBehavior {
+		/**
+		 * Function is applied to every element of list, nested lists keep their structure
+		 */
+		ELEMENT_WISE,
+		/**
+		 * All elements of list (including nested ones) are reduced to single number
+		 */
+		AGGREGATE,
+		/**
+		 * Elements of list are arguments of function, e.g. "f(1;2)"
+		 */
+		ARGUMENTS
+	}
+
+	public enum CostHint {
+		/**
+		 * Constant time (e.g. abs)
+		 */
+		CHEAP,
+		/**
+		 * Proportional to count of arguments (e.g. sum)
+		 */
+		LINEAR,
+		/**
+		 * Evaluated with series, cost grows with precision (e.g. sin, ln)
+		 */
+		TRANSCENDENTAL
+	}
+
+	/**
+	 * Function of suffix and operand, e.g. in "log2(8)" 2 is suffix and 8 is operand.
+	 * Any of them may be {@code null}, but not both.
+	 */
+	public interface ParametricFunction {
+		BigDecimal apply(@Nullable BigDecimal suffix, @Nullable BigDecimal operand);
+	}
+
+	public interface AggregateFunction {
+		BigDecimal apply(@Nullable BigDecimal suffix, BigDecimal[] values);
+	}
+
+	public interface MultiArgumentFunction {
+		BigDecimal apply(BigDecimal[] arguments);
+	}
+
+	/**
+	 * Function which receives its arguments unevaluated, e.g. "seq(i^2;i;1;10)",
+	 * so it can evaluate them with its own variables
+	 */
+	public interface SpecialForm {
+		/**
+		 * @param arguments Elements of list in brackets of function
+		 */
+		NumberList apply(Evaluator evaluator, List<TreeNode> arguments);
+	}
+
+	/**
+	 * Implementation of function in {@code double} arithmetic, which is used for batch evaluation of columns
+	 */
+	public interface DoubleKernel {
+		/**
+		 * Computes function for column of values in place.
+		 * Results which cannot be trusted (e.g. values near poles) should be replaced with NaN,
+		 * such rows are recomputed with {@link BigDecimal} arithmetic.
+		 *
+		 * @param suffix Values of suffix if it is parameter of function (base of logarithm), {@code null} otherwise
+		 * @param values Values of argument, which are replaced with results
+		 */
+		void apply(@Nullable double[] suffix, double[] values, int size, AngleMode angleMode);
+	}
+
+	/**
+	 * Derivative of function of one argument, which is used for automatic differentiation
+	 */
+	public interface Derivative {
+		/**
+		 * @param suffix  Parameter of function (base of logarithm, degree of root) or {@code null}, it is treated as constant
+		 * @param operand Argument of function
+		 * @param value   Value of function at operand
+		 * @return Derivative of function by its argument at operand
+		 */
+		BigDecimal apply(@Nullable BigDecimal suffix, BigDecimal operand, BigDecimal value);
+	}
+
+	/**
+	 * Reduces result of associative operator to value of aggregate
+	 */
+	public interface Finisher {
+		BigDecimal apply(BigDecimal reduced, int count);
+	}
+
+	private final String name;
+	private final List<String> aliases;
+	private final int arity;
+	private final boolean pure;
+	private final ListBehavior listBehavior;
+	private final CostHint costHint;
+	private final ParametricFunction function;
+	private final AggregateFunction aggregateFunction;
+	private final MultiArgumentFunction multiArgumentFunction;
+	private final SpecialForm specialForm;
+	private final BigDecimal identity;
+	private final BinaryOperator<BigDecimal> operator;
+	private final Finisher finisher;
+	private final DoubleKernel doubleKernel;
+	private final Derivative derivative;
+
+	private FunctionHandle(Builder builder) {
+		this.name = builder.name;
+		this.aliases = List.copyOf(builder.aliases);
+		this.arity = builder.arity;
+		this.pure = builder.pure;
+		this.listBehavior = builder.listBehavior;
+		this.costHint = builder.costHint;
+		this.function = builder.function;
+		this.aggregateFunction = builder.aggregateFunction;
+		this.multiArgumentFunction = builder.multiArgumentFunction;
+		this.specialForm = builder.specialForm;
+		this.identity = builder.identity;
+		this.operator = builder.operator;
+		this.finisher = builder.finisher;
+		this.doubleKernel = builder.doubleKernel;
+		this.derivative = builder.derivative;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<String> getAliases() {
+		return aliases;
+	}
+
+	/**
+	 * @return Count of arguments: 1 if suffix or operand is the only argument,
+	 * 2 if suffix is additional parameter (base of logarithm, degree of root), {@link #VARIADIC} for aggregates
+	 */
+	public int getArity() {
+		return arity;
+	}
+
+	/**
+	 * @return {@code true} if result depends only on arguments (and precision and angle mode),
+	 * so it can be cached or evaluated ahead of time
+	 */
+	public boolean isPure() {
+		return pure;
+	}
+
+	public ListBehavior getListBehavior() {
+		return listBehavior;
+	}
+
+	public CostHint getCostHint() {
+		return costHint;
+	}
+
+	/**
+	 * @return Implementation in {@code double} arithmetic or {@code null} if function has no such implementation
+	 */
+	@Nullable
+	public DoubleKernel getDoubleKernel() {
+		return doubleKernel;
+	}
+
+	/**
+	 * @return Derivative of function or {@code null} if function cannot be differentiated
+	 */
+	@Nullable
+	public Derivative getDerivative() {
+		return derivative;
+	}
+
+	public boolean isSpecialForm() {
+		return specialForm != null;
+	}
+
+	/**
+	 * @return {@code true} if aggregate is reduction with associative operator,
+	 * so it can consume {@link LazyNumberList} without materializing it
+	 */
+	public boolean isReduction() {
+		return operator != null;
+	}
+
+	/**
+	 * Applies special form to unevaluated arguments
+	 *
+	 * @throws IllegalStateException if function is not special form
+	 */
+	public NumberList applySpecialForm(Evaluator evaluator, List<TreeNode> arguments) {
+		if (specialForm == null)
+			throw new IllegalStateException("Function " + name + " is not special form");
+		return specialForm.apply(evaluator, arguments);
+	}
+
+	/**
+	 * Reduces lazy list in parallel chunks without materializing it
+	 *
+	 * @throws IllegalStateException if function is not reduction
+	 */
+	public BigDecimal reduce(LazyNumberList list) {
+		if (operator == null)
+			throw new IllegalStateException("Function " + name + " is not reduction");
+		return finisher.apply(list.reduce(identity, operator), list.size());
+	}
+
+	/**
+	 * Applies function to single number
+	 *
+	 * @throws CalculationException if both suffix and operand are {@code null} or function cannot be applied
+	 */
+	public BigDecimal apply(@Nullable BigDecimal suffix, @Nullable BigDecimal operand) {
+		if (suffix == null && operand == null)
+			throw new CalculationException(CalculationException.FUNCTION_SUFFIX_AND_OPERAND_NULL);
+		if (specialForm != null)
+			throw new IllegalStateException("Function " + name + " is special form");
+		if (aggregateFunction != null) {
+			if (operand == null)
+				return aggregateFunction.apply(null, new BigDecimal[]{suffix});
+			return aggregateFunction.apply(suffix, new BigDecimal[]{operand});
+		}
+		if (multiArgumentFunction != null)
+			return applyToArguments(new BigDecimal[]{suffix == null ? operand : suffix});
+		return function.apply(suffix, operand);
+	}
+
+	/**
+	 * Reduces values to single number
+	 *
+	 * @throws IllegalStateException if function is not aggregate
+	 */
+	public BigDecimal aggregate(@Nullable BigDecimal suffix, BigDecimal[] values) {
+		if (aggregateFunction == null)
+			throw new IllegalStateException("Function " + name + " is not aggregate");
+		return aggregateFunction.apply(suffix, values);
+	}
+
+	/**
+	 * Applies function of several arguments
+	 *
+	 * @throws CalculationException if count of arguments does not match arity
+	 * @throws IllegalStateException if function does not take list as arguments
+	 */
+	public BigDecimal applyToArguments(BigDecimal[] arguments) {
+		if (multiArgumentFunction == null)
+			throw new IllegalStateException("Function " + name + " does not take several arguments");
+		if (arguments.length < arity)
+			throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, name);
+		if (arguments.length > arity)
+			throw new CalculationException(CalculationException.TOO_MANY_ARGUMENTS, name);
+		return multiArgumentFunction.apply(arguments);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	public static class Builder {
+		private final String name;
+		private List<String> aliases = List.of();
+		private int arity = 1;
+		private boolean pure = true;
+		private ListBehavior listBehavior = ListBehavior.ELEMENT_WISE;
+		private CostHint costHint = CostHint.CHEAP;
+		private ParametricFunction function;
+		private AggregateFunction aggregateFunction;
+		private MultiArgumentFunction multiArgumentFunction;
+		private SpecialForm specialForm;
+		private BigDecimal identity;
+		private BinaryOperator<BigDecimal> operator;
+		private Finisher finisher;
+		private DoubleKernel doubleKernel;
+		private Derivative derivative;
+
+		public Builder(String name) {
+			this.name = Objects.requireNonNull(name);
+		}
+
+		public Builder setAliases(String... aliases) {
+			this.aliases = List.of(aliases);
+			return this;
+		}
+
+		/**
+		 * Sets function of one argument. If function has both suffix and operand, suffix is used (like in "sin30(...)")
+		 */
+		public Builder setFunction(UnaryOperator<BigDecimal> function) {
+			Objects.requireNonNull(function);
+			this.function = (suffix, operand) -> function.apply(suffix == null ? operand : suffix);
+			this.aggregateFunction = null;
+			this.multiArgumentFunction = null;
+			this.specialForm = null;
+			this.operator = null;
+			this.arity = 1;
+			this.listBehavior = ListBehavior.ELEMENT_WISE;
+			return this;
+		}
+
+		/**
+		 * Sets function whose suffix is additional parameter
+		 */
+		public Builder setParametricFunction(ParametricFunction function) {
+			this.function = Objects.requireNonNull(function);
+			this.aggregateFunction = null;
+			this.multiArgumentFunction = null;
+			this.specialForm = null;
+			this.operator = null;
+			this.arity = 2;
+			this.listBehavior = ListBehavior.ELEMENT_WISE;
+			return this;
+		}
+
+		/**
+		 * Sets function which reduces all elements of list
+		 */
+		public Builder setAggregateFunction(AggregateFunction aggregateFunction) {
+			this.aggregateFunction = Objects.requireNonNull(aggregateFunction);
+			this.function = null;
+			this.specialForm = null;
+			this.operator = null;
+			this.multiArgumentFunction = null;
+			this.arity = VARIADIC;
+			this.listBehavior = ListBehavior.AGGREGATE;
+			if (costHint == CostHint.CHEAP)
+				this.costHint = CostHint.LINEAR;
+			return this;
+		}
+
+		/**
+		 * Sets function which takes elements of list as arguments, e.g. "f(1;2)"
+		 */
+		public Builder setMultiArgumentFunction(int arity, MultiArgumentFunction function) {
+			if (arity < 1)
+				throw new IllegalArgumentException("Arity must be positive");
+			this.multiArgumentFunction = Objects.requireNonNull(function);
+			this.function = null;
+			this.aggregateFunction = null;
+			this.specialForm = null;
+			this.operator = null;
+			this.arity = arity;
+			this.listBehavior = ListBehavior.ARGUMENTS;
+			return this;
+		}
+
+		/**
+		 * Sets aggregate which is reduction of elements with associative operator, e.g. sum.
+		 * Such aggregates consume lazy lists in parallel chunks.
+		 */
+		public Builder setReduction(BigDecimal identity, BinaryOperator<BigDecimal> operator, Finisher finisher) {
+			Objects.requireNonNull(identity);
+			Objects.requireNonNull(operator);
+			Objects.requireNonNull(finisher);
+			setAggregateFunction((suffix, values) -> {
+				BigDecimal result = identity;
+				for (BigDecimal value : values)
+					result = operator.apply(result, value);
+				return finisher.apply(result, values.length);
+			});
+			this.identity = identity;
+			this.operator = operator;
+			this.finisher = finisher;
+			return this;
+		}
+
+		/**
+		 * Sets function which receives its arguments unevaluated
+		 */
+		public Builder setSpecialForm(SpecialForm specialForm) {
+			this.specialForm = Objects.requireNonNull(specialForm);
+			this.function = null;
+			this.aggregateFunction = null;
+			this.multiArgumentFunction = null;
+			this.arity = VARIADIC;
+			this.listBehavior = ListBehavior.ARGUMENTS;
+			return this;
+		}
+
+		/**
+		 * Sets implementation in {@code double} arithmetic for batch evaluation.
+		 * Kernel should give the same results as function up to rounding errors.
+		 */
+		public Builder setDoubleKernel(DoubleKernel doubleKernel) {
+			this.doubleKernel = doubleKernel;
+			return this;
+		}
+
+		/**
+		 * Sets derivative of function of one argument for automatic differentiation
+		 */
+		public Builder setDerivative(Derivative derivative) {
+			this.derivative = derivative;
+			return this;
+		}
+
+		public Builder setPure(boolean pure) {
+			this.pure = pure;
+			return this;
+		}
+
+		public Builder setCostHint(CostHint costHint) {
+			this.costHint = Objects.requireNonNull(costHint);
+			return this;
+		}
+
+		public FunctionHandle build() {
+			if (function == null && aggregateFunction == null && multiArgumentFunction == null && specialForm == null)
+				throw new IllegalStateException("Function " + name + " has no implementation");
+			return new FunctionHandle(this);
+		}
+	}
+
+}
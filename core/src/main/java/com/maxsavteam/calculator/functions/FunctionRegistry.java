@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.functions;
+
+import com.maxsavteam.calculator.AngleMode;
+import com.maxsavteam.calculator.Calculator;
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+import com.maxsavteam.calculator.utils.Logarithms;
+import com.maxsavteam.calculator.utils.MathUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.UnaryOperator;
+
+import static com.maxsavteam.calculator.functions.FunctionHandle.CostHint.TRANSCENDENTAL;
+
+/**
+ * Functions available to expressions, looked up by name or any of aliases.<br>
+ * {@link com.maxsavteam.calculator.tree.TreeBuilder} binds function nodes to handles of registry when tree is built,
+ * so names are looked up once per parse instead of once per evaluation.
+ *
+ * @see Calculator#getFunctionRegistry()
+ */
+public class FunctionRegistry {
+
+	/**
+	 * Results of double kernels of tangent and similar functions which are greater than this are not trusted
+	 */
+	private static final double POLE_THRESHOLD = 1e12;
+
+	private final Map<String, FunctionHandle> handles = new HashMap<>();
+
+	/**
+	 * Registers function under its name and aliases. Functions with the same names are replaced.
+	 */
+	public void register(FunctionHandle handle) {
+		handles.put(handle.getName(), handle);
+		for (String alias : handle.getAliases())
+			handles.put(alias, handle);
+	}
+
+	/**
+	 * Removes function with given name or alias together with all its aliases
+	 *
+	 * @return {@code true} if function was registered
+	 */
+	public boolean unregister(String name) {
+		FunctionHandle handle = handles.get(name);
+		if (handle == null)
+			return false;
+		handles.values().removeIf(h -> h == handle);
+		return true;
+	}
+
+	/**
+	 * @return Handle of function with given name or alias, {@code null} if there is no such function
+	 */
+	@Nullable
+	public FunctionHandle get(String name) {
+		return handles.get(name);
+	}
+
+	public boolean contains(String name) {
+		return handles.containsKey(name);
+	}
+
+	/**
+	 * @return All registered functions, each once
+	 */
+	public Collection<FunctionHandle> getHandles() {
+		return new ArrayList<>(new LinkedHashSet<>(handles.values()));
+	}
+
+	/**
+	 * @return New registry with all built-in functions
+	 */
+	public static FunctionRegistry createDefault() {
+		FunctionRegistry registry = new FunctionRegistry();
+		registry.register(new FunctionHandle.Builder("log")
+				.setParametricFunction((suffix, operand) -> {
+					if (suffix != null && operand != null)
+						return MathUtils.logWithBase(operand, suffix);
+					return MathUtils.log(suffix == null ? operand : suffix);
+				})
+				.setDoubleKernel((suffix, values, size, angleMode) -> {
+					for (int i = 0; i < size; i++)
+						values[i] = suffix == null ? Math.log10(values[i]) : Math.log(values[i]) / Math.log(suffix[i]);
+				})
+				.setDerivative((suffix, x, value) ->
+						reciprocal(x.multiply(Logarithms.lnOfBase(suffix == null ? BigDecimal.TEN : suffix, mc()))))
+				.setCostHint(TRANSCENDENTAL)
+				.build());
+		registry.register(new FunctionHandle.Builder("sqrt")
+				.setParametricFunction((suffix, operand) -> {
+					if (suffix != null && operand != null)
+						return MathUtils.rootWithBase(operand, suffix);
+					return MathUtils.rootWithBase(suffix == null ? operand : suffix, BigDecimal.valueOf(2));
+				})
+				.setDoubleKernel((suffix, values, size, angleMode) -> {
+					for (int i = 0; i < size; i++)
+						values[i] = suffix == null ? Math.sqrt(values[i]) : root(values[i], suffix[i]);
+				})
+				.setDerivative((suffix, x, value) ->
+						value.multiply(reciprocal(x.multiply(suffix == null ? BigDecimal.valueOf(2) : suffix)), mc()))
+				.setCostHint(TRANSCENDENTAL)
+				.build());
+		registry.register(transcendental("ln", MathUtils::ln, kernel(Math::log),
+				(suffix, x, value) -> reciprocal(x)));
+		registry.register(transcendental("sin", MathUtils::sin, angleKernel(Math::sin),
+				(suffix, x, value) -> perUnit(MathUtils.cos(x))));
+		registry.register(transcendental("cos", MathUtils::cos, angleKernel(Math::cos),
+				(suffix, x, value) -> perUnit(MathUtils.sin(x).negate())));
+		registry.register(transcendental("tan", MathUtils::tan, angleKernel(x -> withoutPole(Math.tan(x))),
+				(suffix, x, value) -> perUnit(BigDecimal.ONE.add(value.multiply(value))), "tg"));
+		registry.register(transcendental("cot", MathUtils::cot, angleKernel(x -> withoutPole(1 / Math.tan(x))),
+				(suffix, x, value) -> perUnit(BigDecimal.ONE.add(value.multiply(value)).negate()), "ctg"));
+		registry.register(transcendental("sec", MathUtils::sec, angleKernel(x -> withoutPole(1 / Math.cos(x))),
+				(suffix, x, value) -> perUnit(value.multiply(MathUtils.tan(x)))));
+		registry.register(transcendental("csc", MathUtils::csc, angleKernel(x -> withoutPole(1 / Math.sin(x))),
+				(suffix, x, value) -> perUnit(value.multiply(MathUtils.cot(x)).negate())));
+		registry.register(transcendental("arcsin", MathUtils::arcsin, inverseAngleKernel(Math::asin),
+				(suffix, x, value) -> inverseUnit(reciprocal(sqrt(BigDecimal.ONE.subtract(x.multiply(x))))), "asin"));
+		registry.register(transcendental("arccos", MathUtils::arccos, inverseAngleKernel(Math::acos),
+				(suffix, x, value) -> inverseUnit(reciprocal(sqrt(BigDecimal.ONE.subtract(x.multiply(x)))).negate()), "acos"));
+		registry.register(transcendental("arctan", MathUtils::arctan, inverseAngleKernel(Math::atan),
+				(suffix, x, value) -> inverseUnit(reciprocal(BigDecimal.ONE.add(x.multiply(x)))), "arctg", "atan", "atg"));
+		registry.register(transcendental("arccot", MathUtils::arccot, inverseAngleKernel(x -> Math.PI / 2 - Math.atan(x)),
+				(suffix, x, value) -> inverseUnit(reciprocal(BigDecimal.ONE.add(x.multiply(x))).negate()),
+				"arcctg", "acot", "actg"));
+		registry.register(transcendental("arcsec", MathUtils::arcsec, inverseAngleKernel(x -> Math.acos(1 / x)),
+				(suffix, x, value) -> inverseUnit(reciprocal(x.abs().multiply(sqrt(x.multiply(x).subtract(BigDecimal.ONE))))), "asec"));
+		registry.register(transcendental("arccsc", MathUtils::arccsc, inverseAngleKernel(x -> Math.asin(1 / x)),
+				(suffix, x, value) -> inverseUnit(reciprocal(x.abs().multiply(sqrt(x.multiply(x).subtract(BigDecimal.ONE)))).negate()),
+				"acsc"));
+		registry.register(new FunctionHandle.Builder("abs")
+				.setFunction(MathUtils::abs)
+				.setDoubleKernel(kernel(Math::abs))
+				.setDerivative((suffix, x, value) -> BigDecimal.valueOf(x.signum()))
+				.build());
+
+		registry.register(new FunctionHandle.Builder("sum")
+				.setReduction(BigDecimal.ZERO, BigDecimal::add, (sum, count) -> sum)
+				.build());
+		registry.register(new FunctionHandle.Builder("A")
+				.setReduction(BigDecimal.ZERO, BigDecimal::add, (sum, count) -> {
+					if (count == 0)
+						throw new CalculationException(CalculationException.AVERAGE_FUNCTION_HAS_NO_ARGUMENTS);
+					return sum.divide(BigDecimal.valueOf(count), Calculator.getRoundScale(), RoundingMode.HALF_EVEN);
+				})
+				.build());
+		// reductions, so bound and lazy lists are consumed in parallel chunks without being materialized
+		registry.register(new FunctionHandle.Builder("gcd")
+				.setReduction(BigDecimal.ZERO, MathUtils::gcd, atLeastTwo("gcd"))
+				.build());
+		registry.register(new FunctionHandle.Builder("lcm")
+				.setReduction(BigDecimal.ONE, MathUtils::lcm, atLeastTwo("lcm"))
+				.build());
+
+		registry.register(new FunctionHandle.Builder("range")
+				.setSpecialForm(Generators::range)
+				.setCostHint(FunctionHandle.CostHint.LINEAR)
+				.build());
+		registry.register(new FunctionHandle.Builder("seq")
+				.setSpecialForm(Generators::seq)
+				.setCostHint(FunctionHandle.CostHint.LINEAR)
+				.build());
+		registry.register(new FunctionHandle.Builder("sigma")
+				.setSpecialForm(Calculus::sigma)
+				.setCostHint(FunctionHandle.CostHint.LINEAR)
+				.build());
+		registry.register(new FunctionHandle.Builder("integrate")
+				.setSpecialForm(Calculus::integrate)
+				.setCostHint(TRANSCENDENTAL)
+				.build());
+		return registry;
+	}
+
+	private static FunctionHandle.Finisher atLeastTwo(String name) {
+		return (reduced, count) -> {
+			if (count < 2)
+				throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, name + ": expected minimum 2, but found " + count);
+			return reduced;
+		};
+	}
+
+	private static FunctionHandle transcendental(String name, UnaryOperator<BigDecimal> function,
+	                                             FunctionHandle.DoubleKernel kernel, FunctionHandle.Derivative derivative,
+	                                             String... aliases) {
+		return new FunctionHandle.Builder(name)
+				.setAliases(aliases)
+				.setFunction(function)
+				.setDoubleKernel(kernel)
+				.setDerivative(derivative)
+				.setCostHint(TRANSCENDENTAL)
+				.build();
+	}
+
+	private static MathContext mc() {
+		return new MathContext(MathUtils.getHighRoundScale());
+	}
+
+	/**
+	 * @throws CalculationException {@link CalculationException#UNDEFINED} if {@code x} is 0, so derivative is infinite
+	 */
+	private static BigDecimal reciprocal(BigDecimal x) {
+		if (x.signum() == 0)
+			throw new CalculationException(CalculationException.UNDEFINED, "derivative is infinite");
+		return BigDecimal.ONE.divide(x, mc());
+	}
+
+	private static BigDecimal sqrt(BigDecimal x) {
+		if (x.signum() < 0)
+			throw new CalculationException(CalculationException.UNDEFINED, "derivative is not defined");
+		return x.sqrt(mc());
+	}
+
+	/**
+	 * Derivative by argument which is angle in current units
+	 */
+	private static BigDecimal perUnit(BigDecimal derivativeByRadians) {
+		MathContext mc = mc();
+		return derivativeByRadians.multiply(EvaluationContext.currentAngleMode().radiansPerUnit(mc), mc);
+	}
+
+	/**
+	 * Derivative of function whose result is angle in current units
+	 */
+	private static BigDecimal inverseUnit(BigDecimal derivativeInRadians) {
+		MathContext mc = mc();
+		return derivativeInRadians.divide(EvaluationContext.currentAngleMode().radiansPerUnit(mc), mc);
+	}
+
+	private static FunctionHandle.DoubleKernel kernel(DoubleUnaryOperator function) {
+		return (suffix, values, size, angleMode) -> {
+			for (int i = 0; i < size; i++)
+				values[i] = function.applyAsDouble(values[i]);
+		};
+	}
+
+	/**
+	 * Kernel of function whose argument is angle
+	 */
+	private static FunctionHandle.DoubleKernel angleKernel(DoubleUnaryOperator function) {
+		return (suffix, values, size, angleMode) -> {
+			double radiansPerUnit = radiansPerUnit(angleMode);
+			for (int i = 0; i < size; i++)
+				values[i] = function.applyAsDouble(values[i] * radiansPerUnit);
+		};
+	}
+
+	/**
+	 * Kernel of function whose result is angle
+	 */
+	private static FunctionHandle.DoubleKernel inverseAngleKernel(DoubleUnaryOperator function) {
+		return (suffix, values, size, angleMode) -> {
+			double radiansPerUnit = radiansPerUnit(angleMode);
+			for (int i = 0; i < size; i++)
+				values[i] = function.applyAsDouble(values[i]) / radiansPerUnit;
+		};
+	}
+
+	private static double radiansPerUnit(AngleMode angleMode) {
+		return angleMode.radiansPerUnit(MathContext.DECIMAL64).doubleValue();
+	}
+
+	/**
+	 * Values near poles may be results of rounding of argument which is exactly at pole, so they are not trusted
+	 */
+	private static double withoutPole(double value) {
+		return Math.abs(value) > POLE_THRESHOLD ? Double.NaN : value;
+	}
+
+	private static double root(double value, double degree) {
+		if (value < 0 || degree <= 0)
+			return Double.NaN;
+		if (degree == 2)
+			return Math.sqrt(value);
+		if (degree == 3)
+			return Math.cbrt(value);
+		return Math.pow(value, 1 / degree);
+	}
+
+}
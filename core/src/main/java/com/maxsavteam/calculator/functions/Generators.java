@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.functions;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.LazyNumberList;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.tree.nodes.ConstantNode;
+import com.maxsavteam.calculator.tree.nodes.TreeNode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Special forms which produce lazy lists: "range(a;b;step)" and "seq(expr;i;a;b;step)".
+ * Bounds are inclusive, step is 1 by default.
+ */
+class Generators {
+
+	private static final BigDecimal MAX_SIZE = BigDecimal.valueOf(Integer.MAX_VALUE);
+
+	/**
+	 * range(a;b) or range(a;b;step)
+	 */
+	static NumberList range(Evaluator evaluator, List<TreeNode> arguments) {
+		checkArguments("range", arguments, 2);
+		return range(evaluator, arguments, 0);
+	}
+
+	/**
+	 * seq(expr;i;a;b) or seq(expr;i;a;b;step)
+	 */
+	static NumberList seq(Evaluator evaluator, List<TreeNode> arguments) {
+		return seq("seq", evaluator, arguments);
+	}
+
+	/**
+	 * @param name Name of function for error messages
+	 */
+	static LazyNumberList seq(String name, Evaluator evaluator, List<TreeNode> arguments) {
+		checkArguments(name, arguments, 4);
+		TreeNode expression = arguments.get(0);
+		String variable = variableName(arguments.get(1));
+		LazyNumberList values = range(evaluator, arguments, 2);
+		Map<String, NumberList> outerVariables = evaluator.getVariables();
+		return new LazyNumberList(values.size(), i -> {
+			Map<String, NumberList> variables;
+			if (outerVariables.isEmpty()) {
+				variables = Map.of(variable, NumberList.of(values.getNumber(i)));
+			} else {
+				variables = new HashMap<>(outerVariables);
+				variables.put(variable, NumberList.of(values.getNumber(i)));
+			}
+			NumberList result = evaluator.evaluate(expression, variables);
+			if (!result.isSingleNumber())
+				throw new CalculationException(CalculationException.FUNCTIONS_OPERANDS_CANNOT_BE_LISTS, "element of " + name + " is list");
+			return result.getSingleNumberIfTrue();
+		});
+	}
+
+	/**
+	 * @param offset Index of first bound in arguments
+	 */
+	private static LazyNumberList range(Evaluator evaluator, List<TreeNode> arguments, int offset) {
+		BigDecimal from = evaluateNumber(evaluator, arguments.get(offset));
+		BigDecimal to = evaluateNumber(evaluator, arguments.get(offset + 1));
+		BigDecimal step = arguments.size() > offset + 2 ? evaluateNumber(evaluator, arguments.get(offset + 2)) : BigDecimal.ONE;
+		if (step.signum() == 0)
+			throw new CalculationException(CalculationException.UNDEFINED, "step of range is 0");
+		BigDecimal count = to.subtract(from).divide(step, 0, RoundingMode.FLOOR).add(BigDecimal.ONE);
+		if (count.signum() <= 0)
+			return new LazyNumberList(0, i -> BigDecimal.ZERO);
+		if (count.compareTo(MAX_SIZE) > 0)
+			throw new CalculationException(CalculationException.LIST_TOO_LARGE, count + " elements");
+		return new LazyNumberList(count.intValue(), i -> from.add(step.multiply(BigDecimal.valueOf(i))));
+	}
+
+	private static void checkArguments(String name, List<TreeNode> arguments, int minCount) {
+		if (arguments.size() < minCount)
+			throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, name);
+		if (arguments.size() > minCount + 1)
+			throw new CalculationException(CalculationException.TOO_MANY_ARGUMENTS, name);
+	}
+
+	static BigDecimal evaluateNumber(Evaluator evaluator, TreeNode node) {
+		NumberList result = evaluator.evaluate(node);
+		if (!result.isSingleNumber())
+			throw new CalculationException(CalculationException.FUNCTIONS_OPERANDS_CANNOT_BE_LISTS);
+		return result.getSingleNumberIfTrue();
+	}
+
+	static String variableName(TreeNode node) {
+		if (!(node instanceof ConstantNode))
+			throw new CalculationException(CalculationException.INVALID_VARIABLE);
+		return ((ConstantNode) node).getName();
+	}
+
+}
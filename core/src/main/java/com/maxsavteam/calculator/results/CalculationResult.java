@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.results;
+
+/**
+ * Result of {@link com.maxsavteam.calculator.Calculator#tryCalculate(String)}.<br>
+ * It is either {@link Success} with calculated list or {@link Failure} with error code
+ * from {@link com.maxsavteam.calculator.exceptions.CalculationException} constants.
+ * There are no other subclasses.
+ */
+public abstract class CalculationResult {
+
+	private CalculationResult() {
+	}
+
+	public abstract boolean isSuccess();
+
+	public static Success success(NumberList result) {
+		return new Success(result);
+	}
+
+	public static Failure failure(int errorCode, String message, int position) {
+		return new Failure(errorCode, message, position);
+	}
+
+	public static final class Success extends CalculationResult {
+		private final NumberList result;
+
+		private Success(NumberList result) {
+			this.result = result;
+		}
+
+		public NumberList getResult() {
+			return result;
+		}
+
+		@Override
+		public boolean isSuccess() {
+			return true;
+		}
+	}
+
+	public static final class Failure extends CalculationResult {
+		private final int errorCode;
+		private final String message;
+		private final int position;
+
+		private Failure(int errorCode, String message, int position) {
+			this.errorCode = errorCode;
+			this.message = message;
+			this.position = position;
+		}
+
+		public int getErrorCode() {
+			return errorCode;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * @return Position of error in formatted expression (see {@link com.maxsavteam.calculator.Calculator#formatExpression(String)})
+		 * or -1 if it is unknown
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		@Override
+		public boolean isSuccess() {
+			return false;
+		}
+	}
+
+}
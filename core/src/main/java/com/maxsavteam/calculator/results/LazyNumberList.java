@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.results;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.utils.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * List of numbers which are computed on access and never stored, e.g. result of "range(1;1000000)".<br>
+ * Element-wise operations produce new lazy lists and aggregates reduce them in parallel chunks,
+ * so list is materialized only if its elements are needed all at once (e.g. it is result of expression).
+ * Long lists are materialized in parallel chunks too.
+ */
+public class LazyNumberList extends NumberList {
+
+	/**
+	 * Lists longer than this cannot be materialized
+	 */
+	public static final int MAX_MATERIALIZED_SIZE = 1 << 20;
+
+	/**
+	 * Lists longer than this are reduced in parallel chunks of this size
+	 */
+	private static final int CHUNK_SIZE = 1 << 13;
+
+	/**
+	 * Cancellation is checked after this count of elements
+	 */
+	private static final int CHECK_INTERVAL = 256;
+
+	public interface Generator {
+		BigDecimal get(int index);
+	}
+
+	private final int size;
+	private final Generator generator;
+
+	public LazyNumberList(int size, Generator generator) {
+		super(view(size, generator));
+		this.size = size;
+		this.generator = generator;
+	}
+
+	private static List<BaseResult> view(int size, Generator generator) {
+		return new AbstractList<>() {
+			@Override
+			public BaseResult get(int index) {
+				return new Number(generator.get(index));
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public BigDecimal getNumber(int index) {
+		return generator.get(index);
+	}
+
+	/**
+	 * Computes all elements
+	 *
+	 * @throws CalculationException if list is longer than {@link #MAX_MATERIALIZED_SIZE}
+	 */
+	@Override
+	public List<BaseResult> getResults() {
+		if (size > MAX_MATERIALIZED_SIZE)
+			throw new CalculationException(CalculationException.LIST_TOO_LARGE, size + " elements");
+		BigDecimal[] values = new BigDecimal[size];
+		EvaluationContext context = EvaluationContext.current();
+		if (size <= CHUNK_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+			compute(values, 0, size, context);
+		else
+			new ChunkComputation(values, 0, size, context).invoke();
+		List<BaseResult> results = new ArrayList<>(size);
+		for (BigDecimal value : values)
+			results.add(new Number(value));
+		return results;
+	}
+
+	/**
+	 * @return List with computed elements
+	 * @throws CalculationException if list is longer than {@link #MAX_MATERIALIZED_SIZE}
+	 */
+	public NumberList materialize() {
+		return new NumberList(getResults());
+	}
+
+	private void compute(BigDecimal[] values, int from, int to, EvaluationContext context) {
+		for (int i = from; i < to; i++) {
+			if ((i - from) % CHECK_INTERVAL == 0 && context != null)
+				context.throwIfCancelled();
+			values[i] = generator.get(i);
+		}
+	}
+
+	/**
+	 * @return Lazy list whose elements are results of function applied to elements of this list
+	 */
+	public LazyNumberList map(UnaryOperator<BigDecimal> function) {
+		return new LazyNumberList(size, i -> function.apply(generator.get(i)));
+	}
+
+	/**
+	 * Reduces elements with associative operator. Long lists are reduced in parallel chunks,
+	 * every chunk is evaluated with its own copy of {@link EvaluationContext} of current thread.
+	 */
+	public BigDecimal reduce(BigDecimal identity, BinaryOperator<BigDecimal> operator) {
+		EvaluationContext context = EvaluationContext.current();
+		if (size <= CHUNK_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+			return reduce(0, size, identity, operator, context);
+		return new ChunkReduction(0, size, identity, operator, context).invoke();
+	}
+
+	private BigDecimal reduce(int from, int to, BigDecimal identity, BinaryOperator<BigDecimal> operator, EvaluationContext context) {
+		BigDecimal result = identity;
+		for (int i = from; i < to; i++) {
+			if ((i - from) % CHECK_INTERVAL == 0 && context != null)
+				context.throwIfCancelled();
+			result = operator.apply(result, generator.get(i));
+		}
+		return result;
+	}
+
+	private class ChunkComputation extends RecursiveAction {
+		private final BigDecimal[] values;
+		private final int from;
+		private final int to;
+		private final EvaluationContext context;
+
+		ChunkComputation(BigDecimal[] values, int from, int to, EvaluationContext context) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+			this.context = context;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_SIZE) {
+				EvaluationContext previous = EvaluationContext.enter(context == null ? null : context.fork());
+				try {
+					LazyNumberList.this.compute(values, from, to, context);
+				} finally {
+					EvaluationContext.restore(previous);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new ChunkComputation(values, from, mid, context), new ChunkComputation(values, mid, to, context));
+		}
+	}
+
+	private class ChunkReduction extends RecursiveTask<BigDecimal> {
+		private final int from;
+		private final int to;
+		private final BigDecimal identity;
+		private final BinaryOperator<BigDecimal> operator;
+		private final EvaluationContext context;
+
+		ChunkReduction(int from, int to, BigDecimal identity, BinaryOperator<BigDecimal> operator, EvaluationContext context) {
+			this.from = from;
+			this.to = to;
+			this.identity = identity;
+			this.operator = operator;
+			this.context = context;
+		}
+
+		@Override
+		protected BigDecimal compute() {
+			if (to - from <= CHUNK_SIZE) {
+				EvaluationContext previous = EvaluationContext.enter(context == null ? null : context.fork());
+				try {
+					return reduce(from, to, identity, operator, context);
+				} finally {
+					EvaluationContext.restore(previous);
+				}
+			}
+			int mid = (from + to) >>> 1;
+			ChunkReduction left = new ChunkReduction(from, mid, identity, operator, context);
+			left.fork();
+			BigDecimal right = new ChunkReduction(mid, to, identity, operator, context).compute();
+			return operator.apply(left.join(), right);
+		}
+	}
+
+}
@@ -16,10 +16,14 @@
 
 package com.maxsavteam.calculator.results;
 
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class NumberList extends BaseResult {
 
@@ -33,6 +37,10 @@ public class NumberList extends BaseResult {
 		return new ArrayList<>(mResults);
 	}
 
+	public int size() {
+		return mResults.size();
+	}
+
 	public boolean isSingleNumber() {
 		return mResults.size() == 1 && mResults.get(0) instanceof Number;
 	}
@@ -49,6 +57,65 @@ public class NumberList extends BaseResult {
 		);
 	}
 
+	/**
+	 * Creates list backed by array, so elements are converted to {@link BigDecimal} only when they are used.
+	 * Array is not copied and should not be modified while list is used.
+	 *
+	 * @throws CalculationException if array contains NaN or infinity
+	 */
+	public static NumberList of(double[] values) {
+		for (double value : values)
+			checkFinite(value);
+		return new LazyNumberList(values.length, i -> BigDecimal.valueOf(values[i]));
+	}
+
+	/**
+	 * Creates list backed by array. Array is not copied and should not be modified while list is used.
+	 */
+	public static NumberList of(long[] values) {
+		return new LazyNumberList(values.length, i -> BigDecimal.valueOf(values[i]));
+	}
+
+	/**
+	 * Creates list backed by array. Array is not copied and should not be modified while list is used.
+	 *
+	 * @throws NullPointerException if array contains {@code null}
+	 */
+	public static NumberList of(BigDecimal[] values) {
+		for (BigDecimal value : values)
+			Objects.requireNonNull(value);
+		return new LazyNumberList(values.length, i -> values[i]);
+	}
+
+	/**
+	 * Creates list of doubles packed into buffer (from its position to limit, in its byte order).
+	 * Buffer is not copied, its position and limit are not changed.
+	 *
+	 * @throws CalculationException if buffer contains NaN or infinity
+	 */
+	public static NumberList ofPackedDoubles(ByteBuffer buffer) {
+		ByteBuffer view = buffer.slice().order(buffer.order());
+		int size = view.remaining() / Double.BYTES;
+		for (int i = 0; i < size; i++)
+			checkFinite(view.getDouble(i * Double.BYTES));
+		return new LazyNumberList(size, i -> BigDecimal.valueOf(view.getDouble(i * Double.BYTES)));
+	}
+
+	/**
+	 * Creates list of longs packed into buffer (from its position to limit, in its byte order).
+	 * Buffer is not copied, its position and limit are not changed.
+	 */
+	public static NumberList ofPackedLongs(ByteBuffer buffer) {
+		ByteBuffer view = buffer.slice().order(buffer.order());
+		int size = view.remaining() / Long.BYTES;
+		return new LazyNumberList(size, i -> BigDecimal.valueOf(view.getLong(i * Long.BYTES)));
+	}
+
+	private static void checkFinite(double value) {
+		if (!Double.isFinite(value))
+			throw new CalculationException(CalculationException.NUMBER_FORMAT_EXCEPTION, Double.toString(value));
+	}
+
 	public String format(DecimalFormat decimalFormat) {
 		if (isSingleNumber()) {
 			if (decimalFormat == null)
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.tree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of brackets, binary operators and suffix operators compiled into lookup tables.<br>
+ * Characters from ASCII range are resolved through array, others (e.g. ⎣, °) through small map,
+ * so every lookup is O(1) regardless of how many operators are registered.
+ * <p>
+ * Grammar is shared between {@link TreeBuilder} and {@link com.maxsavteam.calculator.CalculatorExpressionFormatter}.
+ * To change it use {@link #withBrackets(List)}, {@link #withBinaryOperators(List)} or {@link #withSuffixOperators(List)}.
+ * </p>
+ */
+public final class Grammar {
+
+	private static final int ASCII_SIZE = 128;
+
+	private final List<BracketsType> brackets;
+	private final List<BinaryOperator> operators;
+	private final List<SuffixOperator> suffixOperators;
+
+	private final CharClass[] asciiClasses = new CharClass[ASCII_SIZE];
+	private final Map<Character, CharClass> otherClasses = new HashMap<>();
+	private final Map<Integer, String> closeBracketsByType = new HashMap<>();
+
+	public Grammar(List<BracketsType> brackets, List<BinaryOperator> operators, List<SuffixOperator> suffixOperators) {
+		this.brackets = List.copyOf(brackets);
+		this.operators = List.copyOf(operators);
+		this.suffixOperators = List.copyOf(suffixOperators);
+
+		for (BracketsType bracketsType : this.brackets) {
+			CharClass open = classOf(bracketsType.openBracket);
+			if (open.openBracketType == -1)
+				open.openBracketType = bracketsType.type;
+			CharClass close = classOf(bracketsType.closeBracket);
+			if (close.closeBracketType == -1)
+				close.closeBracketType = bracketsType.type;
+			closeBracketsByType.merge(bracketsType.type, String.valueOf(bracketsType.closeBracket), String::concat);
+		}
+		for (BinaryOperator operator : this.operators) {
+			CharClass charClass = classOf(operator.symbol);
+			if (!charClass.binaryOperator) {
+				charClass.binaryOperator = true;
+				charClass.priority = operator.priority;
+			}
+		}
+		for (SuffixOperator operator : this.suffixOperators) {
+			CharClass charClass = classOf(operator.getSymbol().charAt(0));
+			if (charClass.suffixOperator == null)
+				charClass.suffixOperator = operator;
+		}
+	}
+
+	private CharClass classOf(char c) {
+		if (c < ASCII_SIZE) {
+			if (asciiClasses[c] == null)
+				asciiClasses[c] = new CharClass();
+			return asciiClasses[c];
+		}
+		return otherClasses.computeIfAbsent(c, k -> new CharClass());
+	}
+
+	private CharClass find(char c) {
+		if (c < ASCII_SIZE)
+			return asciiClasses[c];
+		return otherClasses.get(c);
+	}
+
+	public Grammar withBrackets(List<BracketsType> brackets) {
+		return new Grammar(brackets, operators, suffixOperators);
+	}
+
+	public Grammar withBinaryOperators(List<BinaryOperator> operators) {
+		return new Grammar(brackets, operators, suffixOperators);
+	}
+
+	public Grammar withSuffixOperators(List<SuffixOperator> suffixOperators) {
+		return new Grammar(brackets, operators, suffixOperators);
+	}
+
+	public List<BracketsType> getBrackets() {
+		return new ArrayList<>(brackets);
+	}
+
+	public List<BinaryOperator> getOperators() {
+		return new ArrayList<>(operators);
+	}
+
+	public List<SuffixOperator> getSuffixOperators() {
+		return new ArrayList<>(suffixOperators);
+	}
+
+	public boolean isOpenBracket(char c) {
+		return getOpenBracketType(c) != -1;
+	}
+
+	public boolean isCloseBracket(char c) {
+		return getCloseBracketType(c) != -1;
+	}
+
+	/**
+	 * @return Type of bracket which opens with this character or -1
+	 */
+	public int getOpenBracketType(char c) {
+		CharClass charClass = find(c);
+		return charClass == null ? -1 : charClass.openBracketType;
+	}
+
+	/**
+	 * @return Type of bracket which closes with this character or -1
+	 */
+	public int getCloseBracketType(char c) {
+		CharClass charClass = find(c);
+		return charClass == null ? -1 : charClass.closeBracketType;
+	}
+
+	/**
+	 * @return Type of bracket which opens or closes with this character or -1
+	 */
+	public int getBracketType(char c) {
+		CharClass charClass = find(c);
+		if (charClass == null)
+			return -1;
+		return charClass.openBracketType != -1 ? charClass.openBracketType : charClass.closeBracketType;
+	}
+
+	/**
+	 * @return All close brackets of given type in order of registration
+	 */
+	public String getCloseBrackets(int type) {
+		return closeBracketsByType.getOrDefault(type, "");
+	}
+
+	public boolean isBinaryOperator(char c) {
+		CharClass charClass = find(c);
+		return charClass != null && charClass.binaryOperator;
+	}
+
+	/**
+	 * @return Priority of binary operator or {@link Integer#MAX_VALUE} if character is not a binary operator
+	 */
+	public int getOperatorPriority(char c) {
+		CharClass charClass = find(c);
+		return charClass == null || !charClass.binaryOperator ? Integer.MAX_VALUE : charClass.priority;
+	}
+
+	public boolean isSuffixOperator(char c) {
+		return getSuffixOperator(c) != null;
+	}
+
+	/**
+	 * @return Suffix operator with given symbol or {@code null}
+	 */
+	public SuffixOperator getSuffixOperator(char c) {
+		CharClass charClass = find(c);
+		return charClass == null ? null : charClass.suffixOperator;
+	}
+
+	private static class CharClass {
+		int openBracketType = -1;
+		int closeBracketType = -1;
+		boolean binaryOperator;
+		int priority;
+		SuffixOperator suffixOperator;
+	}
+
+}
@@ -20,6 +20,8 @@ package com.maxsavteam.calculator.tree;
 import com.maxsavteam.calculator.Calculator;
 import com.maxsavteam.calculator.exceptions.CalculationException;
 import com.maxsavteam.calculator.exceptions.TreeBuildingException;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.functions.FunctionRegistry;
 import com.maxsavteam.calculator.tree.nodes.BracketsNode;
 import com.maxsavteam.calculator.tree.nodes.ConstantNode;
 import com.maxsavteam.calculator.tree.nodes.FunctionNode;
@@ -30,6 +32,7 @@ import com.maxsavteam.calculator.tree.nodes.OperatorNode;
 import com.maxsavteam.calculator.tree.nodes.SuffixOperatorNode;
 import com.maxsavteam.calculator.tree.nodes.TreeNode;
 import com.maxsavteam.calculator.utils.CalculatorUtils;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -76,7 +79,9 @@ import java.util.Stack;
  * (e.g. "sin45", sinus will be there as function name and 45 as suffix).
  * Suffix can have its own node ({@link FunctionNode#getSuffixNode()})<br>
  * If function name and suffix followed by some type of bracket, then {@link FunctionNode}'s will be
- * {@link BracketsNode} with all rules described above.
+ * {@link BracketsNode} with all rules described above.<br>
+ * If {@link FunctionRegistry} is set, function nodes are bound to its handles ({@link FunctionNode#getHandle()})
+ * and unknown functions are rejected with {@link TreeBuildingException}.
  * </p>
  *
  * <p>
@@ -108,10 +113,10 @@ public class TreeBuilder {
 			new SuffixOperator(Calculator.DEGREE_SIGN),
 			new SuffixOperator(Calculator.GRAD_SIGN)
 	);
+	public static final Grammar defaultGrammar = new Grammar(defaultBrackets, defaultBinaryOperators, defaultSuffixOperators);
 
-	private List<BracketsType> brackets = defaultBrackets;
-	private List<BinaryOperator> operators = defaultBinaryOperators;
-	private List<SuffixOperator> suffixOperators = defaultSuffixOperators;
+	private Grammar grammar = defaultGrammar;
+	private FunctionRegistry functionRegistry;
 	private ArrayList<OperatorPosition> mOperatorPositions;
 	private ArrayList<SemicolonPosition> mSemicolonPositions;
 
@@ -119,7 +124,7 @@ public class TreeBuilder {
 	 * Sets custom brackets
 	 */
 	public void setBracketsTypes(List<BracketsType> brackets) {
-		this.brackets = brackets;
+		grammar = grammar.withBrackets(brackets);
 	}
 
 	/**
@@ -127,7 +132,7 @@ public class TreeBuilder {
 	 */
 	public void setBinaryOperators(List<BinaryOperator> operators) {
 		CalculatorUtils.requireUniqueItems(operators);
-		this.operators = operators;
+		grammar = grammar.withBinaryOperators(operators);
 	}
 
 	/**
@@ -135,19 +140,45 @@ public class TreeBuilder {
 	 */
 	public void setSuffixOperators(List<SuffixOperator> suffixOperators) {
 		CalculatorUtils.requireUniqueItems(suffixOperators);
-		this.suffixOperators = suffixOperators;
+		grammar = grammar.withSuffixOperators(suffixOperators);
+	}
+
+	/**
+	 * Sets precompiled grammar (brackets, binary and suffix operators)
+	 */
+	public void setGrammar(Grammar grammar) {
+		this.grammar = grammar;
+	}
+
+	/**
+	 * Sets registry which function nodes are bound to.
+	 * If registry is set, unknown functions are rejected while tree is built.
+	 *
+	 * @param functionRegistry Registry or {@code null} to leave functions unbound
+	 */
+	public void setFunctionRegistry(@Nullable FunctionRegistry functionRegistry) {
+		this.functionRegistry = functionRegistry;
+	}
+
+	@Nullable
+	public FunctionRegistry getFunctionRegistry() {
+		return functionRegistry;
+	}
+
+	public Grammar getGrammar() {
+		return grammar;
 	}
 
 	public List<BracketsType> getBrackets() {
-		return new ArrayList<>(brackets);
+		return grammar.getBrackets();
 	}
 
 	public List<BinaryOperator> getOperators() {
-		return new ArrayList<>(operators);
+		return grammar.getOperators();
 	}
 
 	public List<SuffixOperator> getSuffixOperators() {
-		return new ArrayList<>(suffixOperators);
+		return grammar.getSuffixOperators();
 	}
 
 	/**
@@ -161,14 +192,14 @@ public class TreeBuilder {
 		int bracketsLevel = 0;
 		for (int i = 0; i < expression.length(); i++) {
 			char c = expression.charAt(i);
-			if (isOpenBracket(c))
+			if (grammar.isOpenBracket(c))
 				bracketsLevel++;
-			else if (isCloseBracket(c))
+			else if (grammar.isCloseBracket(c))
 				bracketsLevel--;
 			else if (c == ';') {
 				mSemicolonPositions.add(new SemicolonPosition(bracketsLevel, i));
-			} else if (isBinaryOperator(c)) {
-				int priority = getOperatorPriority(c);
+			} else if (grammar.isBinaryOperator(c)) {
+				int priority = grammar.getOperatorPriority(c);
 				mOperatorPositions.add(new OperatorPosition(bracketsLevel, priority, i));
 			}
 		}
@@ -188,10 +219,10 @@ public class TreeBuilder {
 	protected TreeNode build(String expression, int rootLevel, int exampleOffset) {
 		if (expression.length() == 0)
 			return null;
-		int minLevel = getBracketsMinLevel(expression);
+		int minLevel = getBracketsMinLevel(expression, exampleOffset);
 
 		if (minLevel >= 1) {
-			int startBracketType = getBracketType(expression.charAt(0));
+			int startBracketType = grammar.getBracketType(expression.charAt(0));
 			TreeNode child = build(expression.substring(1, expression.length() - 1), rootLevel + 1, exampleOffset + 1);
 			BracketsNode node = new BracketsNode(startBracketType);
 			node.setFirstChild(child);
@@ -211,8 +242,7 @@ public class TreeBuilder {
 		if (CalculatorUtils.isLetter(expression.charAt(0))) {
 			return parseFunc(expression, exampleOffset, rootLevel);
 		}
-		String last = expression.substring(expression.length() - 1);
-		if (isSuffixOperator(last)) {
+		if (grammar.isSuffixOperator(expression.charAt(expression.length() - 1))) {
 			return parseSuffixOperator(expression, exampleOffset, rootLevel);
 		}
 		return new NumberNode(expression);
@@ -263,18 +293,14 @@ public class TreeBuilder {
 	}
 
 	protected SuffixOperatorNode parseSuffixOperator(String ex, int offset, int rootLevel) {
-		String operator = ex.substring(ex.length() - 1);
+		char operator = ex.charAt(ex.length() - 1);
 		int i = ex.length() - 1;
 		int count = 1;
-		while (i >= 1 && ex.substring(i - 1, i).equals(operator)) {
+		while (i >= 1 && ex.charAt(i - 1) == operator) {
 			count++;
 			i--;
 		}
-		SuffixOperator suffixOperator = suffixOperators
-				.stream()
-				.filter(o -> o.getSymbol().equals(operator))
-				.findAny()
-				.orElseThrow();
+		SuffixOperator suffixOperator = grammar.getSuffixOperator(operator);
 		SuffixOperatorNode node = new SuffixOperatorNode(suffixOperator, count);
 		node.setFirstChild(build(ex.substring(0, i), rootLevel, offset));
 		return node;
@@ -288,8 +314,12 @@ public class TreeBuilder {
 			i++;
 		}
 		if (i == ex.length() || !CalculatorUtils.isDigit(ex.charAt(i))) {
+			// name followed only by suffix operators is operand of them, e.g. x! or pi%
+			if (i != ex.length() && isSuffixOperators(ex, i))
+				return parseSuffixOperator(ex, offset, rootLevel);
 			if (i != ex.length() && !CalculatorUtils.isDigit(ex.charAt(i))) {
 				FunctionNode node = new FunctionNode(funcName.toString(), null);
+				bindFunction(node, offset);
 				node.setFirstChild(build(ex.substring(i), rootLevel, offset + i));
 				return node;
 			}
@@ -298,20 +328,40 @@ public class TreeBuilder {
 		// sin2! should be recognized as sin(2!), sin30° => sin(30°), that is why suffixes should be evaluated
 		int suffixStartIndex = i;
 		while (i < ex.length()) {
-			String character = ex.substring(i, i + 1);
-			if (!CalculatorUtils.isDigit(ex.charAt(i)) && ex.charAt(i) != '.' && !isSuffixOperator(character)) {
+			char character = ex.charAt(i);
+			if (!CalculatorUtils.isDigit(character) && character != '.' && !grammar.isSuffixOperator(character)) {
 				break;
 			}
 			i++;
 		}
 		TreeNode suffixNode = build(ex.substring(suffixStartIndex, i), rootLevel, offset + suffixStartIndex);
 		FunctionNode node = new FunctionNode(funcName.toString(), suffixNode);
+		bindFunction(node, offset);
 		if (i < ex.length()) {
 			node.setFirstChild(build(ex.substring(i), rootLevel, offset + i));
 		}
 		return node;
 	}
 
+	private boolean isSuffixOperators(String ex, int from) {
+		for (int i = from; i < ex.length(); i++)
+			if (!grammar.isSuffixOperator(ex.charAt(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @throws TreeBuildingException if registry is set and does not contain function
+	 */
+	protected void bindFunction(FunctionNode node, int offset) {
+		if (functionRegistry == null)
+			return;
+		FunctionHandle handle = functionRegistry.get(node.getFunctionName());
+		if (handle == null)
+			throw new TreeBuildingException(CalculationException.UNKNOWN_FUNCTION, offset);
+		node.setHandle(handle);
+	}
+
 	protected OperatorPosition findNearestOperatorInExpression(String ex, int offset, int rootLevel) {
 		int end = offset + ex.length();
 		OperatorPosition foundPos = null;
@@ -344,16 +394,23 @@ public class TreeBuilder {
 	}
 
 	protected int getBracketsMinLevel(String ex) {
+		return getBracketsMinLevel(ex, 0);
+	}
+
+	/**
+	 * @param offset Index of this expression in original expression. Used to report position of error.
+	 */
+	protected int getBracketsMinLevel(String ex, int offset) {
 		Stack<Integer> typesStack = new Stack<>();
 		int minLevel = Integer.MAX_VALUE;
 
 		for (int i = 0; i < ex.length(); i++) {
 			char c = ex.charAt(i);
-			if (isOpenBracket(c)) {
-				typesStack.push(getBracketType(c));
-			} else if (isCloseBracket(c)) {
-				if (typesStack.isEmpty() || typesStack.peek() != getBracketType(c))
-					throw new TreeBuildingException(CalculationException.INVALID_BRACKETS_SEQUENCE);
+			if (grammar.isOpenBracket(c)) {
+				typesStack.push(grammar.getOpenBracketType(c));
+			} else if (grammar.isCloseBracket(c)) {
+				if (typesStack.isEmpty() || typesStack.peek() != grammar.getCloseBracketType(c))
+					throw new TreeBuildingException(CalculationException.INVALID_BRACKETS_SEQUENCE, offset + i);
 				typesStack.pop();
 			} else {
 				minLevel = Math.min(minLevel, typesStack.size());
@@ -362,51 +419,4 @@ public class TreeBuilder {
 		return minLevel;
 	}
 
-	private boolean isOpenBracket(char c) {
-		for (BracketsType bracketsType : brackets) {
-			if (bracketsType.openBracket == c)
-				return true;
-		}
-		return false;
-	}
-
-	private boolean isCloseBracket(char c) {
-		for (BracketsType bracketsType : brackets) {
-			if (bracketsType.closeBracket == c)
-				return true;
-		}
-		return false;
-	}
-
-	private boolean isSuffixOperator(String s) {
-		for (SuffixOperator operator : suffixOperators) {
-			if (operator.getSymbol().equals(s))
-				return true;
-		}
-		return false;
-	}
-
-	private int getBracketType(char c) {
-		for (BracketsType bracketsType : brackets) {
-			if (bracketsType.openBracket == c || bracketsType.closeBracket == c)
-				return bracketsType.type;
-		}
-		return -1;
-	}
-
-	private boolean isBinaryOperator(char c) {
-		for (BinaryOperator operator : operators) {
-			if (operator.symbol == c)
-				return true;
-		}
-		return false;
-	}
-
-	private int getOperatorPriority(char c) {
-		for (BinaryOperator operator : operators)
-			if (operator.symbol == c)
-				return operator.priority;
-		return Integer.MAX_VALUE;
-	}
-
 }
@@ -17,12 +17,17 @@
 
 package com.maxsavteam.calculator.tree.nodes;
 
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import org.jetbrains.annotations.Nullable;
+
 public class FunctionNode extends TreeNode {
 
 	private final String functionName;
 
 	private final TreeNode suffixNode;
 
+	private FunctionHandle handle;
+
 	public FunctionNode(String functionName, TreeNode suffixNode) {
 		this.functionName = functionName;
 		this.suffixNode = suffixNode;
@@ -35,4 +40,17 @@ public class FunctionNode extends TreeNode {
 	public TreeNode getSuffixNode() {
 		return suffixNode;
 	}
+
+	/**
+	 * @return Handle which this node was bound to when tree was built,
+	 * {@code null} if tree was built without registry
+	 */
+	@Nullable
+	public FunctionHandle getHandle() {
+		return handle;
+	}
+
+	public void setHandle(@Nullable FunctionHandle handle) {
+		this.handle = handle;
+	}
 }
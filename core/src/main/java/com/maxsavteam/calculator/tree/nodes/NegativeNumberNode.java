@@ -18,6 +18,7 @@
 package com.maxsavteam.calculator.tree.nodes;
 
 import com.maxsavteam.calculator.results.BaseResult;
+import com.maxsavteam.calculator.results.LazyNumberList;
 import com.maxsavteam.calculator.results.NumberList;
 import com.maxsavteam.calculator.results.Number;
 
@@ -31,6 +32,8 @@ public class NegativeNumberNode extends TreeNode {
 	}
 
 	public static NumberList apply(BaseResult r) {
+		if (r instanceof LazyNumberList)
+			return ((LazyNumberList) r).map(BigDecimal::negate);
 		ArrayList<BaseResult> results = new ArrayList<>();
 		if (r instanceof Number) {
 			results.add(applyOnNum((Number) r));
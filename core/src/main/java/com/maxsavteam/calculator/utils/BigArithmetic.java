@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Arithmetic for huge operands.<br>
+ * Multiplication of operands longer than {@link #PARALLEL_THRESHOLD_BITS} is split with Karatsuba
+ * scheme into three smaller multiplications, which run in common ForkJoin pool.
+ * Smaller operands are multiplied with {@link BigInteger#multiply(BigInteger)} directly.
+ * <p>
+ * Powers are computed with iterative square-and-multiply. Bounded versions round every
+ * intermediate result to given {@link MathContext} (with guard digits), so they are cheap
+ * when only limited number of digits is needed.
+ * </p>
+ */
+public class BigArithmetic {
+
+	/**
+	 * About 40 000 decimal digits
+	 */
+	public static final int PARALLEL_THRESHOLD_BITS = 1 << 17;
+
+	private static final int GUARD_DIGITS = 4;
+
+	public static BigInteger multiply(BigInteger a, BigInteger b) {
+		if (a.bitLength() < PARALLEL_THRESHOLD_BITS || b.bitLength() < PARALLEL_THRESHOLD_BITS
+				|| ForkJoinPool.getCommonPoolParallelism() < 2)
+			return a.multiply(b);
+		int signum = a.signum() * b.signum();
+		BigInteger result = new MultiplyTask(a.abs(), b.abs(), EvaluationContext.current()).invoke();
+		return signum < 0 ? result.negate() : result;
+	}
+
+	/**
+	 * Exact multiplication
+	 */
+	public static BigDecimal multiply(BigDecimal a, BigDecimal b) {
+		if (a.precision() + b.precision() < PARALLEL_THRESHOLD_BITS / 4)
+			return a.multiply(b);
+		return new BigDecimal(multiply(a.unscaledValue(), b.unscaledValue()), Math.addExact(a.scale(), b.scale()));
+	}
+
+	/**
+	 * Multiplication rounded to given context
+	 */
+	public static BigDecimal multiply(BigDecimal a, BigDecimal b, MathContext mc) {
+		return multiply(round(a, mc), round(b, mc)).round(mc);
+	}
+
+	/**
+	 * Exact power with non-negative exponent
+	 */
+	public static BigDecimal pow(BigDecimal a, BigInteger n) {
+		if (n.signum() < 0)
+			throw new IllegalArgumentException("Exponent must be non-negative");
+		BigInteger unscaled = a.unscaledValue();
+		int scale = scaleOfPower(a, n);
+		if (unscaled.abs().equals(BigInteger.ONE)) {
+			// a = ±10^k, so only sign and scale change
+			BigInteger sign = unscaled.signum() < 0 && n.testBit(0) ? BigInteger.ONE.negate() : BigInteger.ONE;
+			return new BigDecimal(sign, scale);
+		}
+		if (n.bitLength() < Long.SIZE)
+			return pow(a, n.longValue());
+		// result will not fit into memory anyway, but exponent is processed without recursion
+		BigInteger result = BigInteger.ONE;
+		EvaluationContext context = EvaluationContext.current();
+		for (int i = n.bitLength() - 1; i >= 0; i--) {
+			if (context != null)
+				context.throwIfCancelled();
+			result = multiply(result, result);
+			if (n.testBit(i))
+				result = multiply(result, unscaled);
+		}
+		return new BigDecimal(result, scale);
+	}
+
+	/**
+	 * Exact power with non-negative exponent
+	 */
+	public static BigDecimal pow(BigDecimal a, long n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Exponent must be non-negative");
+		int scale = scaleOfPower(a, BigInteger.valueOf(n));
+		return new BigDecimal(pow(a.unscaledValue(), n), scale);
+	}
+
+	/**
+	 * @throws CalculationException with {@link CalculationException#DIGIT_LIMIT_EXCEEDED}
+	 * if scale of {@code a^n} does not fit into {@code int}
+	 */
+	private static int scaleOfPower(BigDecimal a, BigInteger n) {
+		BigInteger scale = BigInteger.valueOf(a.scale()).multiply(n);
+		if (scale.bitLength() >= Integer.SIZE)
+			throw new CalculationException(CalculationException.DIGIT_LIMIT_EXCEEDED, "exponent of power is out of range");
+		return scale.intValue();
+	}
+
+	public static BigInteger pow(BigInteger a, long n) {
+		if (n == 0)
+			return BigInteger.ONE;
+		EvaluationContext context = EvaluationContext.current();
+		BigInteger result = a;
+		for (int i = Long.SIZE - 2 - Long.numberOfLeadingZeros(n); i >= 0; i--) {
+			if (context != null)
+				context.throwIfCancelled();
+			result = multiply(result, result);
+			if ((n & (1L << i)) != 0)
+				result = multiply(result, a);
+		}
+		return result;
+	}
+
+	/**
+	 * Power with non-negative exponent, where every intermediate product is rounded to given context
+	 */
+	public static BigDecimal pow(BigDecimal a, long n, MathContext mc) {
+		if (n < 0)
+			throw new IllegalArgumentException("Exponent must be non-negative");
+		if (n == 0)
+			return BigDecimal.ONE;
+		// each rounding loses up to half ulp, there are 2 * log2(n) roundings
+		MathContext working = new MathContext(mc.getPrecision() + GUARD_DIGITS + (int) Math.log10(n + 1) * 2, mc.getRoundingMode());
+		EvaluationContext context = EvaluationContext.current();
+		BigDecimal base = a.round(working);
+		BigDecimal result = base;
+		for (int i = Long.SIZE - 2 - Long.numberOfLeadingZeros(n); i >= 0; i--) {
+			if (context != null)
+				context.throwIfCancelled();
+			result = multiply(result, result).round(working);
+			if ((n & (1L << i)) != 0)
+				result = multiply(result, base).round(working);
+		}
+		return result.round(mc);
+	}
+
+	private static BigDecimal round(BigDecimal a, MathContext mc) {
+		return a.precision() > mc.getPrecision() ? a.round(mc) : a;
+	}
+
+	private static BigInteger lowBits(BigInteger x, int bits) {
+		return x.subtract(x.shiftRight(bits).shiftLeft(bits));
+	}
+
+	/**
+	 * Karatsuba step on non-negative operands: {@code a*b = z2*B^2 + z1*B + z0}, where
+	 * {@code z1 = (a1+a0)(b1+b0) - z2 - z0}
+	 */
+	private static class MultiplyTask extends RecursiveTask<BigInteger> {
+		private final BigInteger a;
+		private final BigInteger b;
+		private final EvaluationContext context;
+
+		MultiplyTask(BigInteger a, BigInteger b, EvaluationContext context) {
+			this.a = a;
+			this.b = b;
+			this.context = context;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			int aBits = a.bitLength();
+			int bBits = b.bitLength();
+			if (aBits < PARALLEL_THRESHOLD_BITS || bBits < PARALLEL_THRESHOLD_BITS)
+				return a.multiply(b);
+			if (context != null)
+				context.throwIfCancelled();
+			if (aBits > 2 * bBits)
+				return splitLonger(a, b);
+			if (bBits > 2 * aBits)
+				return splitLonger(b, a);
+
+			int half = (Math.max(aBits, bBits) / 2 + 31) & ~31;
+			BigInteger a1 = a.shiftRight(half);
+			BigInteger a0 = lowBits(a, half);
+			BigInteger b1 = b.shiftRight(half);
+			BigInteger b0 = lowBits(b, half);
+
+			MultiplyTask high = new MultiplyTask(a1, b1, context);
+			MultiplyTask low = new MultiplyTask(a0, b0, context);
+			MultiplyTask middle = new MultiplyTask(a1.add(a0), b1.add(b0), context);
+			ForkJoinTask.invokeAll(high, low, middle);
+
+			BigInteger z2 = high.join();
+			BigInteger z0 = low.join();
+			BigInteger z1 = middle.join().subtract(z2).subtract(z0);
+			return z2.shiftLeft(2 * half).add(z1.shiftLeft(half)).add(z0);
+		}
+
+		/**
+		 * Unbalanced operands: longer one is cut into two halves which are multiplied by shorter one in parallel
+		 */
+		private BigInteger splitLonger(BigInteger longer, BigInteger shorter) {
+			int half = (longer.bitLength() / 2 + 31) & ~31;
+			MultiplyTask high = new MultiplyTask(longer.shiftRight(half), shorter, context);
+			MultiplyTask low = new MultiplyTask(lowBits(longer, half), shorter, context);
+			ForkJoinTask.invokeAll(high, low);
+			return high.join().shiftLeft(half).add(low.join());
+		}
+	}
+
+}
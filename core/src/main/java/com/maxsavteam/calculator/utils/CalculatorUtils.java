@@ -18,6 +18,7 @@
 package com.maxsavteam.calculator.utils;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
 
 public class CalculatorUtils {
@@ -45,8 +46,29 @@ public class CalculatorUtils {
 		return res;
 	}
 
+	/**
+	 * Removes trailing zeros of fractional part. Result never has negative scale,
+	 * so it is the same number as {@link #removeZeros(String)} of its plain string would give.
+	 */
 	public static BigDecimal removeZeros(BigDecimal b) {
-		return new BigDecimal(removeZeros(b.toPlainString()));
+		if (b.signum() == 0)
+			return BigDecimal.ZERO;
+		if (b.scale() == 0)
+			return b;
+		if (b.scale() < 0)
+			return b.setScale(0);
+		// only fractional zeros are stripped; number divisible by 10^k is also divisible by 2^k
+		BigInteger unscaled = b.unscaledValue();
+		int scale = b.scale();
+		int maxZeros = Math.min(scale, unscaled.getLowestSetBit());
+		for (int i = 0; i < maxZeros; i++) {
+			BigInteger[] quotientAndRemainder = unscaled.divideAndRemainder(BigInteger.TEN);
+			if (quotientAndRemainder[1].signum() != 0)
+				break;
+			unscaled = quotientAndRemainder[0];
+			scale--;
+		}
+		return scale == b.scale() ? b : new BigDecimal(unscaled, scale);
 	}
 
 	public static String removeSpaces(String ex) {
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import com.maxsavteam.calculator.AngleMode;
+import com.maxsavteam.calculator.CancellationToken;
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.results.NumberList;
+
+import java.util.Map;
+
+/**
+ * State of evaluation which is running in current thread.<br>
+ * {@link com.maxsavteam.calculator.Calculator} installs context for every evaluation,
+ * so static helpers (e.g. {@link MathUtils}) can check limits without passing them through every call.
+ * If there is no context, no limits are applied.
+ */
+public final class EvaluationContext {
+
+	/**
+	 * Maximum depth of nested calls of user-defined functions
+	 */
+	public static final int MAX_CALL_DEPTH = 256;
+
+	private static final ThreadLocal<EvaluationContext> current = new ThreadLocal<>();
+
+	private final CancellationToken cancellationToken;
+
+	private final long digitLimit;
+
+	private final AngleMode angleMode;
+
+	private Map<String, NumberList> variables = Map.of();
+
+	private int callDepth;
+
+	/**
+	 * @param cancellationToken Token to check, may be {@code null}
+	 * @param digitLimit        Maximum number of digits which intermediate result may have
+	 */
+	public EvaluationContext(CancellationToken cancellationToken, long digitLimit) {
+		this(cancellationToken, digitLimit, AngleMode.RADIANS);
+	}
+
+	/**
+	 * @param cancellationToken Token to check, may be {@code null}
+	 * @param digitLimit        Maximum number of digits which intermediate result may have
+	 * @param angleMode         Units of arguments of trigonometric functions
+	 */
+	public EvaluationContext(CancellationToken cancellationToken, long digitLimit, AngleMode angleMode) {
+		this.cancellationToken = cancellationToken;
+		this.digitLimit = digitLimit;
+		this.angleMode = angleMode;
+	}
+
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+
+	public long getDigitLimit() {
+		return digitLimit;
+	}
+
+	public AngleMode getAngleMode() {
+		return angleMode;
+	}
+
+	/**
+	 * @return Copy of this context for worker thread. Variables and depth of calls are copied,
+	 * so worker can call functions independently of thread which created it.
+	 */
+	public EvaluationContext fork() {
+		EvaluationContext context = new EvaluationContext(cancellationToken, digitLimit, angleMode);
+		context.variables = variables;
+		context.callDepth = callDepth;
+		return context;
+	}
+
+	/**
+	 * @return Variables of current scope
+	 */
+	public Map<String, NumberList> getVariables() {
+		return variables;
+	}
+
+	/**
+	 * Sets variables of top-level scope, e.g. lists bound to expression
+	 */
+	public void setVariables(Map<String, NumberList> variables) {
+		this.variables = Map.copyOf(variables);
+	}
+
+	/**
+	 * @return Value of variable (parameter of user-defined function which is being evaluated) or {@code null}
+	 */
+	public NumberList getVariable(String name) {
+		return variables.get(name);
+	}
+
+	/**
+	 * Installs variables of called user-defined function.
+	 *
+	 * @return Variables of caller, which should be passed to {@link #exitCall(Map)}
+	 * @throws CalculationException if calls are nested deeper than {@link #MAX_CALL_DEPTH}
+	 */
+	public Map<String, NumberList> enterCall(Map<String, NumberList> variables) {
+		if (callDepth >= MAX_CALL_DEPTH)
+			throw new CalculationException(CalculationException.CALL_DEPTH_EXCEEDED);
+		callDepth++;
+		Map<String, NumberList> callerVariables = this.variables;
+		this.variables = variables;
+		return callerVariables;
+	}
+
+	public void exitCall(Map<String, NumberList> callerVariables) {
+		callDepth--;
+		this.variables = callerVariables;
+	}
+
+	/**
+	 * @return Context of current thread or {@code null}
+	 */
+	public static EvaluationContext current() {
+		return current.get();
+	}
+
+	/**
+	 * Installs context for current thread.
+	 *
+	 * @return Previous context, which should be passed to {@link #restore(EvaluationContext)}
+	 */
+	public static EvaluationContext enter(EvaluationContext context) {
+		EvaluationContext previous = current.get();
+		current.set(context);
+		return previous;
+	}
+
+	public static void restore(EvaluationContext previous) {
+		if (previous == null)
+			current.remove();
+		else
+			current.set(previous);
+	}
+
+	/**
+	 * @return Angle mode of evaluation in current thread or {@link AngleMode#RADIANS} if there is no context
+	 */
+	public static AngleMode currentAngleMode() {
+		EvaluationContext context = current.get();
+		return context == null ? AngleMode.RADIANS : context.angleMode;
+	}
+
+	/**
+	 * Throws {@link CalculationException} if evaluation in current thread was cancelled or its time limit exceeded
+	 */
+	public static void checkCancelled() {
+		EvaluationContext context = current.get();
+		if (context != null && context.cancellationToken != null)
+			context.cancellationToken.throwIfCancelled();
+	}
+
+	/**
+	 * Same as {@link #checkCancelled()}, but for this context.
+	 * Can be used from worker threads, which do not have context installed.
+	 */
+	public void throwIfCancelled() {
+		if (cancellationToken != null)
+			cancellationToken.throwIfCancelled();
+	}
+
+	/**
+	 * Should be called before operation which result is expected to have given number of digits.
+	 * Throws {@link CalculationException#DIGIT_LIMIT_EXCEEDED} if it exceeds limit of evaluation in current thread,
+	 * so huge numbers are rejected before they are allocated.
+	 */
+	public static void checkDigits(double predictedDigits) {
+		EvaluationContext context = current.get();
+		if (context != null && predictedDigits > context.digitLimit)
+			throw new CalculationException(
+					CalculationException.DIGIT_LIMIT_EXCEEDED,
+					String.format("about %.0f digits expected, but limit is %d", predictedDigits, context.digitLimit)
+			);
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Detection of arguments for which functions have exact values, so series evaluation can be skipped.<br>
+ * Every method returns {@code null} if value is not exact (or checking it is too expensive).
+ */
+class ExactValues {
+
+	/**
+	 * Numbers longer than this are not checked for being perfect powers
+	 */
+	private static final int MAX_ROOT_OPERAND_BITS = 1 << 14;
+
+	/**
+	 * Exact logarithms are searched only if power of base is not longer than this
+	 */
+	private static final int MAX_LOG_POWER_DIGITS = 10000;
+
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	/**
+	 * @return {@code n}-th root of {@code a} if {@code a} is perfect power of finite decimal, {@code null} otherwise
+	 */
+	static BigDecimal root(BigDecimal a, BigDecimal n) {
+		if (a.signum() <= 0 || n.signum() <= 0 || n.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0)
+			return null;
+		int degree;
+		try {
+			degree = n.intValueExact();
+		} catch (ArithmeticException e) {
+			return null;
+		}
+		if (degree == 1)
+			return a;
+		a = a.stripTrailingZeros();
+		// a = unscaled * 10^-scale, scale is made multiple of degree, so root is unscaledRoot * 10^(-scale/degree)
+		long scale = a.scale();
+		long alignedScale = Math.floorDiv(scale + degree - 1, degree) * degree;
+		if (alignedScale - scale > MAX_ROOT_OPERAND_BITS)
+			return null;
+		BigInteger unscaled = a.unscaledValue().multiply(BigInteger.TEN.pow((int) (alignedScale - scale)));
+		if (unscaled.bitLength() > MAX_ROOT_OPERAND_BITS)
+			return null;
+		BigInteger root = integerRoot(unscaled, degree);
+		if (root == null)
+			return null;
+		return new BigDecimal(root, (int) (alignedScale / degree));
+	}
+
+	/**
+	 * @return Exact root if {@code x} is perfect power, {@code null} otherwise
+	 */
+	private static BigInteger integerRoot(BigInteger x, int degree) {
+		if (degree == 2) {
+			BigInteger root = x.sqrt();
+			return root.multiply(root).equals(x) ? root : null;
+		}
+		if (degree >= x.bitLength())
+			return x.equals(BigInteger.ONE) ? BigInteger.ONE : null;
+		// Newton's iterations from above converge to floor of root
+		BigInteger k = BigInteger.valueOf(degree);
+		BigInteger kMinusOne = BigInteger.valueOf(degree - 1L);
+		BigInteger root = BigInteger.ONE.shiftLeft((x.bitLength() + degree - 1) / degree);
+		while (true) {
+			BigInteger next = kMinusOne.multiply(root).add(x.divide(root.pow(degree - 1))).divide(k);
+			if (next.compareTo(root) >= 0)
+				break;
+			root = next;
+		}
+		return root.pow(degree).equals(x) ? root : null;
+	}
+
+	/**
+	 * @return Integer {@code m} such that {@code base^m = x}, or {@code null} if there is no such integer
+	 */
+	static BigDecimal logarithm(BigDecimal x, BigDecimal base) {
+		if (x.signum() <= 0 || base.signum() <= 0 || base.compareTo(BigDecimal.ONE) == 0)
+			return null;
+		if (x.compareTo(BigDecimal.ONE) == 0)
+			return BigDecimal.ZERO;
+		double estimate = log10(x) / log10(base);
+		long m = Math.round(estimate);
+		if (m == 0 || Math.abs(estimate - m) > 1e-6)
+			return null;
+		BigDecimal strippedBase = base.stripTrailingZeros();
+		if ((double) Math.abs(m) * strippedBase.precision() > MAX_LOG_POWER_DIGITS)
+			return null;
+		BigDecimal power = BigArithmetic.pow(strippedBase, Math.abs(m));
+		// base^m = x for negative m is checked as x * base^|m| = 1
+		boolean exact = m > 0
+				? power.compareTo(x) == 0
+				: x.multiply(power).compareTo(BigDecimal.ONE) == 0;
+		return exact ? BigDecimal.valueOf(m) : null;
+	}
+
+	private static double log10(BigDecimal x) {
+		BigInteger unscaled = x.unscaledValue();
+		int shift = Math.max(0, unscaled.bitLength() - 64);
+		return Math.log10(unscaled.shiftRight(shift).doubleValue()) + shift * Math.log10(2) - x.scale();
+	}
+
+	/**
+	 * If {@code x} is within {@code 10^-(precision - 2) * min(1, |x|)} of multiple of 30 or 45 degrees,
+	 * returns exact sine and cosine of that angle. Tolerance shrinks with {@code |x|},
+	 * so small arguments are never taken for zero.
+	 */
+	static Trigonometry.SinCos specialAngle(BigDecimal x, MathContext working, int precision) {
+		// x = k * pi/12 + remainder
+		BigDecimal step = MathConstants.pi(working).divide(BigDecimal.valueOf(12), working);
+		BigDecimal k = x.divide(step, working).setScale(0, RoundingMode.HALF_EVEN);
+		BigDecimal remainder = x.subtract(k.multiply(step), working);
+		BigDecimal tolerance = x.abs().min(BigDecimal.ONE).movePointLeft(precision - 2);
+		if (remainder.abs().compareTo(tolerance) > 0)
+			return null;
+		int j = k.toBigInteger().mod(BigInteger.valueOf(24)).intValue();
+		BigDecimal sin = sinOfMultiple(j, working);
+		BigDecimal cos = sinOfMultiple(j + 6, working);
+		if (sin == null || cos == null)
+			return null;
+		return new Trigonometry.SinCos(sin, cos);
+	}
+
+	/**
+	 * @param j Angle in units of 15 degrees
+	 * @return Sine of angle if it has known closed form
+	 */
+	private static BigDecimal sinOfMultiple(int j, MathContext mc) {
+		j %= 24;
+		if (j >= 12) {
+			BigDecimal sin = sinOfMultiple(j - 12, mc);
+			return sin == null ? null : sin.negate();
+		}
+		if (j > 6)
+			j = 12 - j;
+		switch (j) {
+			case 0:
+				return BigDecimal.ZERO;
+			case 2:
+				return new BigDecimal("0.5");
+			case 3:
+				return MathConstants.sqrt2(mc).divide(TWO, mc);
+			case 4:
+				return MathConstants.sqrt3(mc).divide(TWO, mc);
+			case 6:
+				return BigDecimal.ONE;
+			default:
+				return null;
+		}
+	}
+
+}
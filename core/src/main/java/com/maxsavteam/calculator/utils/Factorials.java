@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Factorials on {@link BigInteger}.<br>
+ * {@code n!} is computed with prime swing algorithm: {@code n! = (n/2)!^2 * swing(n)},
+ * where swing is product of prime powers. Large products are split across common ForkJoin pool.
+ * Computed factorials are kept in bounded cache, so {@code n!} can be continued from cached {@code m!} when {@code m} is close to {@code n}.
+ */
+public class Factorials {
+
+	private static final long[] smallFactorials = new long[21];
+
+	/**
+	 * Products of more factors than this are split into parallel tasks
+	 */
+	private static final int PARALLEL_THRESHOLD = 2048;
+
+	private static final int SEQUENTIAL_THRESHOLD = 64;
+
+	/**
+	 * Factorials of smaller numbers are cheap enough to not be cached
+	 */
+	private static final int CACHE_MIN_N = 1000;
+
+	/**
+	 * Maximum total size of cached values (8 MB)
+	 */
+	private static final long CACHE_MAX_BITS = 64L * 1024 * 1024;
+
+	private static final ConcurrentSkipListMap<Integer, BigInteger> cache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentLinkedQueue<Integer> cacheOrder = new ConcurrentLinkedQueue<>();
+	private static final AtomicLong cachedBits = new AtomicLong();
+
+	static {
+		smallFactorials[0] = 1;
+		for (int i = 1; i < smallFactorials.length; i++)
+			smallFactorials[i] = smallFactorials[i - 1] * i;
+	}
+
+	public static BigInteger factorial(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Factorial of negative number");
+		if (n < smallFactorials.length)
+			return BigInteger.valueOf(smallFactorials[n]);
+		BigInteger cached = cache.get(n);
+		if (cached != null)
+			return cached;
+
+		EvaluationContext context = EvaluationContext.current();
+		BigInteger result;
+		Map.Entry<Integer, BigInteger> nearest = cache.floorEntry(n);
+		if (nearest != null && n - nearest.getKey() <= n / 16) {
+			result = BigArithmetic.multiply(nearest.getValue(), product(nearest.getKey() + 1, n, 1, context));
+		} else {
+			result = oddFactorial(n, sieve(n), context).shiftLeft(n - Integer.bitCount(n));
+		}
+		if (n >= CACHE_MIN_N)
+			putToCache(n, result);
+		return result;
+	}
+
+	/**
+	 * @return {@code n * (n - step) * (n - 2 * step) * ...} while factors are positive
+	 */
+	public static BigInteger multiFactorial(long n, int step) {
+		if (step < 1)
+			throw new IllegalArgumentException("Step must be positive");
+		if (n < 2)
+			return BigInteger.ONE;
+		if (step == 1 && n <= Integer.MAX_VALUE)
+			return factorial((int) n);
+		long first = n % step == 0 ? step : n % step;
+		return product(first, n, step, EvaluationContext.current());
+	}
+
+	public static void clearCache() {
+		cache.clear();
+		cacheOrder.clear();
+		cachedBits.set(0);
+	}
+
+	private static void putToCache(int n, BigInteger value) {
+		long bits = value.bitLength();
+		if (bits > CACHE_MAX_BITS || cache.putIfAbsent(n, value) != null)
+			return;
+		cacheOrder.add(n);
+		long total = cachedBits.addAndGet(bits);
+		while (total > CACHE_MAX_BITS) {
+			Integer oldest = cacheOrder.poll();
+			if (oldest == null)
+				break;
+			BigInteger removed = cache.remove(oldest);
+			if (removed != null)
+				total = cachedBits.addAndGet(-removed.bitLength());
+		}
+	}
+
+	/**
+	 * Odd part of {@code n!}
+	 */
+	private static BigInteger oddFactorial(int n, boolean[] composite, EvaluationContext context) {
+		if (n < 2)
+			return BigInteger.ONE;
+		if (context != null)
+			context.throwIfCancelled();
+		BigInteger half = oddFactorial(n / 2, composite, context);
+		BigInteger swing = oddSwing(n, composite, context);
+		return BigArithmetic.multiply(BigArithmetic.multiply(half, half), swing);
+	}
+
+	/**
+	 * Odd part of swinging factorial {@code n! / (n/2)!^2}.
+	 * Exponent of prime {@code p} in it is count of odd numbers in sequence {@code n/p, n/p^2, ...}
+	 */
+	private static BigInteger oddSwing(int n, boolean[] composite, EvaluationContext context) {
+		List<BigInteger> factors = new ArrayList<>();
+		long accumulator = 1;
+		for (int p = 3; p <= n; p += 2) {
+			if (composite[p])
+				continue;
+			int q = n;
+			long power = 1;
+			while ((q /= p) > 0) {
+				if ((q & 1) == 1)
+					power *= p;
+			}
+			if (power == 1)
+				continue;
+			if (accumulator > Long.MAX_VALUE / power) {
+				factors.add(BigInteger.valueOf(accumulator));
+				accumulator = 1;
+			}
+			accumulator *= power;
+		}
+		factors.add(BigInteger.valueOf(accumulator));
+		return productOf(factors, context);
+	}
+
+	/**
+	 * @return Array where {@code composite[i]} is true if {@code i} is not prime
+	 */
+	private static boolean[] sieve(int n) {
+		boolean[] composite = new boolean[n + 1];
+		for (int i = 2; (long) i * i <= n; i++) {
+			if (!composite[i]) {
+				for (int j = i * i; j <= n; j += i)
+					composite[j] = true;
+			}
+		}
+		return composite;
+	}
+
+	/**
+	 * @return Product of arithmetic progression {@code from, from + step, ..., to}
+	 */
+	static BigInteger product(long from, long to, long step, EvaluationContext context) {
+		List<BigInteger> factors = new ArrayList<>();
+		long accumulator = 1;
+		for (long x = from; x <= to; x += step) {
+			if (accumulator > Long.MAX_VALUE / x) {
+				factors.add(BigInteger.valueOf(accumulator));
+				accumulator = 1;
+			}
+			accumulator *= x;
+		}
+		factors.add(BigInteger.valueOf(accumulator));
+		return productOf(factors, context);
+	}
+
+	/**
+	 * Multiplies all factors with balanced binary tree, so operands of each multiplication have similar size
+	 */
+	static BigInteger productOf(List<BigInteger> factors, EvaluationContext context) {
+		if (factors.size() > PARALLEL_THRESHOLD)
+			return new ProductTask(factors, 0, factors.size(), context).invoke();
+		return productOf(factors, 0, factors.size(), context);
+	}
+
+	private static BigInteger productOf(List<BigInteger> factors, int from, int to, EvaluationContext context) {
+		int count = to - from;
+		if (count == 0)
+			return BigInteger.ONE;
+		if (count == 1)
+			return factors.get(from);
+		if (count == 2)
+			return factors.get(from).multiply(factors.get(from + 1));
+		if (count > SEQUENTIAL_THRESHOLD && context != null)
+			context.throwIfCancelled();
+		int mid = from + count / 2;
+		return BigArithmetic.multiply(productOf(factors, from, mid, context), productOf(factors, mid, to, context));
+	}
+
+	private static class ProductTask extends RecursiveTask<BigInteger> {
+		private final List<BigInteger> factors;
+		private final int from;
+		private final int to;
+		private final EvaluationContext context;
+
+		ProductTask(List<BigInteger> factors, int from, int to, EvaluationContext context) {
+			this.factors = factors;
+			this.from = from;
+			this.to = to;
+			this.context = context;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			if (to - from <= PARALLEL_THRESHOLD)
+				return productOf(factors, from, to, context);
+			int mid = from + (to - from) / 2;
+			ProductTask left = new ProductTask(factors, from, mid, context);
+			left.fork();
+			BigInteger right = new ProductTask(factors, mid, to, context).compute();
+			return BigArithmetic.multiply(left.join(), right);
+		}
+	}
+
+}
@@ -32,55 +32,24 @@ public class Fraction {
 		return denominator;
 	}
 
-	private BigInteger gcd(BigInteger a, BigInteger b) {
-		while (!a.equals(BigInteger.ZERO) && !b.equals(BigInteger.ZERO)) {
-			if (a.compareTo(b) > 0) {
-				a = a.remainder(b);
-			} else {
-				b = b.remainder(a);
-			}
-		}
-
-		return a.add(b);
-	}
-
 	public Fraction(BigDecimal b) {
-		String s = b.toPlainString();
 		if (isFraction(b)) {
-			int pos = s.indexOf(".");
-			int n = s.length() - pos - 1;
-			this.denominator = BigInteger.valueOf(10).pow(n);
-			StringBuilder sb = new StringBuilder(s);
-			sb.deleteCharAt(pos);
-			this.numerator = new BigInteger(sb.toString());
-
-			BigInteger g = gcd(denominator, numerator);
-			while (!g.equals(BigInteger.ONE)) {
-				denominator = denominator.divide(g);
-				numerator = numerator.divide(g);
-
-				g = gcd(denominator, numerator);
-			}
+			BigDecimal stripped = b.stripTrailingZeros();
+			BigInteger numerator = stripped.unscaledValue();
+			BigInteger denominator = BigInteger.TEN.pow(stripped.scale());
+			BigInteger g = numerator.gcd(denominator);
+			this.numerator = numerator.divide(g);
+			this.denominator = denominator.divide(g);
 		} else {
-			if(s.contains("."))
-				s = s.substring(0, s.indexOf("."));
-			this.numerator = new BigInteger(s);
+			this.numerator = b.toBigInteger();
 			this.denominator = BigInteger.ONE;
 		}
 	}
 
+	/**
+	 * @return True if number has non-zero fractional part
+	 */
 	public static boolean isFraction(BigDecimal a) {
-		String s = a.toPlainString();
-		int pos = s.indexOf('.');
-		if (pos == -1)
-			return false;
-		boolean containsNonZero = false;
-		for (int i = pos + 1; i < s.length(); i++) {
-			if (s.charAt(i) != '0') {
-				containsNonZero = true;
-				break;
-			}
-		}
-		return containsNonZero;
+		return a.scale() > 0 && a.stripTrailingZeros().scale() > 0;
 	}
 }
\ No newline at end of file
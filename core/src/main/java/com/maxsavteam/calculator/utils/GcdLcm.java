@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Greatest common divisor and least common multiple of integers.<br>
+ * Numbers which fit into {@code long} are processed with primitive Euclid's algorithm,
+ * others with {@link BigInteger#gcd(BigInteger)}. Long arrays are reduced with parallel tree
+ * in common ForkJoin pool. Reduction of gcd stops as soon as it reaches 1.
+ */
+class GcdLcm {
+
+	/**
+	 * Arrays longer than this are split into parallel tasks
+	 */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	/**
+	 * Cancellation is checked after this count of elements
+	 */
+	private static final int CHECK_INTERVAL = 256;
+
+	static BigInteger gcd(BigInteger a, BigInteger b) {
+		if (a.bitLength() < Long.SIZE - 1 && b.bitLength() < Long.SIZE - 1)
+			return BigInteger.valueOf(gcd(Math.abs(a.longValue()), Math.abs(b.longValue())));
+		return a.gcd(b);
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	static BigInteger lcm(BigInteger a, BigInteger b) {
+		if (a.signum() == 0 || b.signum() == 0)
+			return BigInteger.ZERO;
+		a = a.abs();
+		b = b.abs();
+		BigInteger quotient = a.divide(gcd(a, b));
+		EvaluationContext.checkDigits((quotient.bitLength() + b.bitLength()) * Math.log10(2));
+		return BigArithmetic.multiply(quotient, b);
+	}
+
+	static BigInteger gcd(BigInteger[] values) {
+		EvaluationContext context = EvaluationContext.current();
+		if (values.length > PARALLEL_THRESHOLD)
+			return new Reduction(values, 0, values.length, true, new AtomicBoolean(), context).invoke();
+		return reduce(values, 0, values.length, true, null, context);
+	}
+
+	static BigInteger lcm(BigInteger[] values) {
+		EvaluationContext context = EvaluationContext.current();
+		if (values.length > PARALLEL_THRESHOLD)
+			return new Reduction(values, 0, values.length, false, null, context).invoke();
+		return reduce(values, 0, values.length, false, null, context);
+	}
+
+	/**
+	 * Sequential reduction of range. Lcm is reduced as balanced tree, so operands of multiplications have similar size.
+	 *
+	 * @param foundOne Flag shared between parallel tasks, which is set when any of them reached gcd 1
+	 */
+	private static BigInteger reduce(BigInteger[] values, int from, int to, boolean isGcd,
+	                                 AtomicBoolean foundOne, EvaluationContext context) {
+		if (isGcd) {
+			BigInteger result = values[from].abs();
+			for (int i = from + 1; i < to; i++) {
+				if ((i - from) % CHECK_INTERVAL == 0) {
+					if (context != null)
+						context.throwIfCancelled();
+					if (foundOne != null && foundOne.get())
+						return BigInteger.ONE;
+				}
+				result = gcd(result, values[i]);
+				if (result.equals(BigInteger.ONE)) {
+					if (foundOne != null)
+						foundOne.set(true);
+					return result;
+				}
+			}
+			return result;
+		}
+		if (to - from == 1)
+			return values[from].abs();
+		if (to - from > CHECK_INTERVAL && context != null)
+			context.throwIfCancelled();
+		int mid = (from + to) >>> 1;
+		return lcm(reduce(values, from, mid, false, null, context), reduce(values, mid, to, false, null, context));
+	}
+
+	private static class Reduction extends RecursiveTask<BigInteger> {
+		private final BigInteger[] values;
+		private final int from;
+		private final int to;
+		private final boolean isGcd;
+		private final AtomicBoolean foundOne;
+		private final EvaluationContext context;
+
+		Reduction(BigInteger[] values, int from, int to, boolean isGcd, AtomicBoolean foundOne, EvaluationContext context) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+			this.isGcd = isGcd;
+			this.foundOne = foundOne;
+			this.context = context;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			if (to - from <= PARALLEL_THRESHOLD)
+				return reduce(values, from, to, isGcd, foundOne, context);
+			int mid = (from + to) >>> 1;
+			Reduction left = new Reduction(values, from, mid, isGcd, foundOne, context);
+			left.fork();
+			BigInteger right = new Reduction(values, mid, to, isGcd, foundOne, context).compute();
+			BigInteger leftResult = left.join();
+			if (isGcd)
+				return foundOne.get() ? BigInteger.ONE : gcd(leftResult, right);
+			return lcm(leftResult, right);
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logarithms with any precision.<br>
+ * Argument is split into {@code x = m * 10^k}, where {@code 1 <= m < 10},
+ * so series runs only for short mantissa and {@code ln(x) = ln(m) + k * ln(10)}.
+ * Natural logarithms of bases are cached per precision, so logarithms with the same base
+ * cost one series evaluation each.
+ */
+public class Logarithms {
+
+	private static final int GUARD_DIGITS = 5;
+
+	/**
+	 * When cache grows larger, it is cleared
+	 */
+	private static final int MAX_CACHED_BASES = 256;
+
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	private static final Map<BaseKey, BigDecimal> lnOfBases = new ConcurrentHashMap<>();
+
+	/**
+	 * Natural logarithm
+	 *
+	 * @throws CalculationException if {@code x <= 0}
+	 */
+	public static BigDecimal ln(BigDecimal x, MathContext mc) {
+		if (x.signum() <= 0)
+			throw new CalculationException(CalculationException.NEGATIVE_PARAMETER_OF_LOG);
+		if (x.compareTo(BigDecimal.ONE) == 0)
+			return BigDecimal.ZERO;
+		long k = (long) x.precision() - x.scale() - 1;
+		if (Math.abs(k) < 2) {
+			// for x close to 1 reduction would subtract close values
+			MathContext working = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+			return BigDecimalMath.log(x.round(working), working).round(mc);
+		}
+		// |ln(x)| >= (|k| - 1) * ln(10), so digits of k are enough to compensate error of k * ln(10)
+		MathContext working = new MathContext(mc.getPrecision() + GUARD_DIGITS + (int) Math.log10(Math.abs(k)) + 1);
+		BigDecimal mantissa = x.round(working).movePointLeft((int) k);
+		BigDecimal lnOfMantissa = BigDecimalMath.log(mantissa, working);
+		return lnOfMantissa.add(MathConstants.ln10(working).multiply(BigDecimal.valueOf(k)), working).round(mc);
+	}
+
+	/**
+	 * @return Cached natural logarithm of {@code base}
+	 */
+	public static BigDecimal lnOfBase(BigDecimal base, MathContext mc) {
+		if (base.compareTo(BigDecimal.TEN) == 0)
+			return MathConstants.ln10(mc);
+		if (base.compareTo(TWO) == 0)
+			return MathConstants.ln2(mc);
+		BaseKey key = new BaseKey(base, mc.getPrecision());
+		BigDecimal ln = lnOfBases.get(key);
+		if (ln == null) {
+			ln = ln(base, mc);
+			if (lnOfBases.size() >= MAX_CACHED_BASES)
+				lnOfBases.clear();
+			lnOfBases.put(key, ln);
+		}
+		return ln;
+	}
+
+	/**
+	 * @throws CalculationException if {@code x <= 0} or {@code base <= 0}, {@link CalculationException#UNDEFINED} if base is 1
+	 */
+	public static BigDecimal log(BigDecimal x, BigDecimal base, MathContext mc) {
+		MathContext working = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+		return divide(ln(x, working), lnOfBase(base, working), mc);
+	}
+
+	/**
+	 * Computes logarithms of all values with the same base. Logarithm of base is computed only once.
+	 */
+	public static BigDecimal[] log(BigDecimal[] values, BigDecimal base, MathContext mc) {
+		MathContext working = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+		BigDecimal lnOfBase = lnOfBase(base, working);
+		BigDecimal[] result = new BigDecimal[values.length];
+		EvaluationContext context = EvaluationContext.current();
+		for (int i = 0; i < values.length; i++) {
+			if (context != null)
+				context.throwIfCancelled();
+			result[i] = divide(ln(values[i], working), lnOfBase, mc);
+		}
+		return result;
+	}
+
+	private static BigDecimal divide(BigDecimal lnOfX, BigDecimal lnOfBase, MathContext mc) {
+		if (lnOfBase.signum() == 0)
+			throw new CalculationException(CalculationException.UNDEFINED);
+		return lnOfX.divide(lnOfBase, mc);
+	}
+
+	private static final class BaseKey {
+		private final BigDecimal base;
+		private final int precision;
+
+		BaseKey(BigDecimal base, int precision) {
+			this.base = base.stripTrailingZeros();
+			this.precision = precision;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof BaseKey))
+				return false;
+			BaseKey baseKey = (BaseKey) o;
+			return precision == baseKey.precision && base.equals(baseKey.base);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(base, precision);
+		}
+	}
+
+}
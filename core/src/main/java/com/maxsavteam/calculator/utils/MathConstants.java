@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Mathematical constants with any precision.<br>
+ * Every constant is computed once per precision and cached. If constant is already known
+ * with greater precision, it is rounded instead of being computed again.
+ */
+public final class MathConstants {
+
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> piCache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> eCache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> phiCache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> ln2Cache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> ln10Cache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> sqrt2Cache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> sqrt3Cache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> degreeCache = new ConcurrentSkipListMap<>();
+	private static final ConcurrentSkipListMap<Integer, BigDecimal> gradianCache = new ConcurrentSkipListMap<>();
+
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+	private static final BigDecimal THREE = BigDecimal.valueOf(3);
+	private static final BigDecimal FIVE = BigDecimal.valueOf(5);
+
+	private MathConstants() {
+	}
+
+	public static BigDecimal pi(MathContext mc) {
+		return get(piCache, mc, BigDecimalMath::pi);
+	}
+
+	public static BigDecimal e(MathContext mc) {
+		return get(eCache, mc, BigDecimalMath::e);
+	}
+
+	/**
+	 * Golden ratio {@code (1 + sqrt(5)) / 2}
+	 */
+	public static BigDecimal phi(MathContext mc) {
+		return get(phiCache, mc, context -> BigDecimal.ONE
+				.add(BigDecimalMath.sqrt(FIVE, context))
+				.divide(TWO, context));
+	}
+
+	public static BigDecimal ln2(MathContext mc) {
+		return get(ln2Cache, mc, context -> BigDecimalMath.log(TWO, context));
+	}
+
+	public static BigDecimal ln10(MathContext mc) {
+		return get(ln10Cache, mc, context -> BigDecimalMath.log(BigDecimal.TEN, context));
+	}
+
+	public static BigDecimal sqrt2(MathContext mc) {
+		return get(sqrt2Cache, mc, context -> BigDecimalMath.sqrt(TWO, context));
+	}
+
+	public static BigDecimal sqrt3(MathContext mc) {
+		return get(sqrt3Cache, mc, context -> BigDecimalMath.sqrt(THREE, context));
+	}
+
+	/**
+	 * {@code pi / 180}
+	 */
+	public static BigDecimal radiansPerDegree(MathContext mc) {
+		return get(degreeCache, mc, context -> pi(context).divide(BigDecimal.valueOf(180), context));
+	}
+
+	/**
+	 * {@code pi / 200}
+	 */
+	public static BigDecimal radiansPerGradian(MathContext mc) {
+		return get(gradianCache, mc, context -> pi(context).divide(BigDecimal.valueOf(200), context));
+	}
+
+	private static BigDecimal get(ConcurrentSkipListMap<Integer, BigDecimal> cache,
+	                              MathContext mc,
+	                              Function<MathContext, BigDecimal> generator) {
+		int precision = mc.getPrecision();
+		if (precision <= 0)
+			throw new IllegalArgumentException("Constants cannot be computed with unlimited precision");
+		BigDecimal value = cache.get(precision);
+		if (value != null)
+			return value;
+		Map.Entry<Integer, BigDecimal> moreAccurate = cache.higherEntry(precision);
+		if (moreAccurate != null)
+			value = moreAccurate.getValue().round(new MathContext(precision));
+		else
+			// computed with few extra digits, so it is correctly rounded
+			value = generator.apply(new MathContext(precision + 5)).round(new MathContext(precision));
+		BigDecimal previous = cache.putIfAbsent(precision, value);
+		return previous == null ? value : previous;
+	}
+
+}
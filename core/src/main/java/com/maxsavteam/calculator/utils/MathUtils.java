@@ -18,6 +18,7 @@
 package com.maxsavteam.calculator.utils;
 
 import ch.obermuhlner.math.big.BigDecimalMath;
+import com.maxsavteam.calculator.AngleMode;
 import com.maxsavteam.calculator.exceptions.CalculationException;
 
 import java.math.BigDecimal;
@@ -26,10 +27,37 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 
 public class MathUtils {
+	/**
+	 * @deprecated Has only 20 digits. Use {@link #e()} instead.
+	 */
+	@Deprecated
 	public static final BigDecimal E = new BigDecimal("2.71828182845904523536");
+	/**
+	 * @deprecated Has only 20 digits. Use {@link #pi()} instead.
+	 */
+	@Deprecated
 	public static final BigDecimal PI = new BigDecimal("3.14159265358979323846");
+	/**
+	 * @deprecated Has only 20 digits. Use {@link #phi()} instead.
+	 */
+	@Deprecated
 	public static final BigDecimal FI = new BigDecimal("1.61803398874989484820");
-	private static final BigDecimal factorialLimit = new BigDecimal("100000");
+	public static final int FACTORIAL_LIMIT = 100000;
+	private static final BigDecimal factorialLimit = BigDecimal.valueOf(FACTORIAL_LIMIT);
+	private static final double LOG10_2 = Math.log10(2);
+	private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+	/**
+	 * The greatest denominator of exponent for which power is computed with root
+	 */
+	private static final int MAX_ROOT_DEGREE = 16;
+	private static final int POW_GUARD_DIGITS = 10;
+	private static final int ANGLE_GUARD_DIGITS = 10;
+
+	/**
+	 * Integer digits of angles longer than this are rounded up to multiple of it for conversion
+	 */
+	private static final int ANGLE_DIGITS_STEP = 64;
 
 	private static int HIGH_ROUND_SCALE = 20;
 	private static MathContext mathContext = new MathContext(HIGH_ROUND_SCALE);
@@ -43,33 +71,120 @@ public class MathUtils {
 		return HIGH_ROUND_SCALE;
 	}
 
+	/**
+	 * @return Pi with current precision
+	 */
+	public static BigDecimal pi() {
+		return MathConstants.pi(mathContext);
+	}
+
+	/**
+	 * @return Euler's number with current precision
+	 */
+	public static BigDecimal e() {
+		return MathConstants.e(mathContext);
+	}
+
+	/**
+	 * @return Golden ratio with current precision
+	 */
+	public static BigDecimal phi() {
+		return MathConstants.phi(mathContext);
+	}
+
+	/**
+	 * Adds numbers after checking that result fits into digit limit of current evaluation
+	 */
+	public static BigDecimal add(BigDecimal a, BigDecimal b) {
+		EvaluationContext.checkDigits(sumDigits(a, b));
+		return a.add(b);
+	}
+
+	/**
+	 * Subtracts numbers after checking that result fits into digit limit of current evaluation
+	 */
+	public static BigDecimal subtract(BigDecimal a, BigDecimal b) {
+		EvaluationContext.checkDigits(sumDigits(a, b));
+		return a.subtract(b);
+	}
+
+	/**
+	 * Multiplies numbers exactly after checking that result fits into digit limit of current evaluation
+	 */
+	public static BigDecimal multiply(BigDecimal a, BigDecimal b) {
+		EvaluationContext.checkDigits((double) a.precision() + b.precision());
+		return BigArithmetic.multiply(a, b);
+	}
+
+	/**
+	 * Sum is aligned to the greatest scale, so it has as many digits as
+	 * the longest integer part plus the longest fractional part
+	 */
+	private static double sumDigits(BigDecimal a, BigDecimal b) {
+		long integerDigits = Math.max((long) a.precision() - a.scale(), (long) b.precision() - b.scale());
+		long scale = Math.max(0, Math.max(a.scale(), b.scale()));
+		return (double) integerDigits + scale + 1;
+	}
+
+	/**
+	 * @return Approximate number of digits of {@code a^n}, including trailing zeros of integer
+	 */
+	private static double powDigits(BigDecimal a, BigInteger n) {
+		return n.doubleValue() * (log10(a.unscaledValue().abs()) + Math.max(0, -a.scale())) + 1;
+	}
+
+	/**
+	 * @return True if exponent of {@code a^n} can be represented by scale of {@link BigDecimal}
+	 */
+	private static boolean magnitudeFitsScale(BigDecimal a, BigDecimal n) {
+		double magnitude = Math.abs((double) a.precision() - a.scale() - 1) + 1;
+		return magnitude * n.doubleValue() < Integer.MAX_VALUE / 2.0;
+	}
+
+	private static double log10(BigInteger x) {
+		int bitLength = x.bitLength();
+		if (bitLength < 1000)
+			return Math.log10(x.doubleValue());
+		int shift = bitLength - 64;
+		return Math.log10(x.shiftRight(shift).doubleValue()) + shift * LOG10_2;
+	}
+
+	/**
+	 * @return Approximate number of digits of {@code n!} with given step (Stirling's formula)
+	 */
+	public static double factorialDigits(double n, int step) {
+		if (n < 2)
+			return 1;
+		double digits = n * Math.log10(n / Math.E) + Math.log10(2 * Math.PI * n) / 2;
+		return digits / step + 1;
+	}
+
 	public static BigDecimal exp(BigDecimal x) {
 		return BigDecimalMath.exp(x, mathContext);
 	}
 
 	public static BigDecimal ln(BigDecimal x) {
-		if (x.signum() < 0)
-			throw new CalculationException(CalculationException.NEGATIVE_PARAMETER_OF_LOG);
-		return BigDecimalMath.log(x, mathContext);
+		return Logarithms.ln(x, mathContext);
 	}
 
 	public static BigDecimal log(BigDecimal x) {
-		if (x.signum() <= 0)
-			throw new CalculationException(CalculationException.NEGATIVE_PARAMETER_OF_LOG);
-		return BigDecimalMath.log10(x, mathContext);
+		return logWithBase(x, BigDecimal.TEN);
 	}
 
 	public static BigDecimal logWithBase(BigDecimal x, BigDecimal base) {
 		if (x.signum() <= 0)
 			throw new CalculationException(CalculationException.NEGATIVE_PARAMETER_OF_LOG);
-		if (base.compareTo(BigDecimal.TEN) == 0)
-			return BigDecimalMath.log10(x, mathContext);
-		if (base.compareTo(BigDecimal.valueOf(2)) == 0)
-			return BigDecimalMath.log2(x, mathContext);
+		BigDecimal exact = ExactValues.logarithm(x, base);
+		if (exact != null)
+			return exact;
+		return Logarithms.log(x, base, mathContext);
+	}
 
-		BigDecimal logX = BigDecimalMath.log(x, mathContext),
-				logB = BigDecimalMath.log(base, mathContext);
-		return logX.divide(logB, mathContext);
+	/**
+	 * Logarithms of all values with the same base
+	 */
+	public static BigDecimal[] logWithBase(BigDecimal[] values, BigDecimal base) {
+		return Logarithms.log(values, base, mathContext);
 	}
 
 	public static BigDecimal abs(BigDecimal x) {
@@ -81,9 +196,12 @@ public class MathUtils {
 	}
 
 	public static BigDecimal gcd(BigDecimal a, BigDecimal b) {
+		if (!Fraction.isFraction(a) && !Fraction.isFraction(b))
+			return new BigDecimal(GcdLcm.gcd(a.toBigInteger(), b.toBigInteger()));
 		a = a.abs();
 		b = b.abs();
 		while (a.signum() != 0 && b.signum() != 0) {
+			EvaluationContext.checkCancelled();
 			if (a.compareTo(b) > 0) {
 				a = a.remainder(b);
 			} else {
@@ -95,8 +213,11 @@ public class MathUtils {
 
 	public static BigDecimal gcd(BigDecimal... l) {
 		if (l.length < 2) {
-			throw new CalculationException(CalculationException.UNKNOWN_CONSTANT, "gcd: expected minimum 2, but found " + l.length);
+			throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, "gcd: expected minimum 2, but found " + l.length);
 		}
+		BigInteger[] integers = toIntegers(l);
+		if (integers != null)
+			return new BigDecimal(GcdLcm.gcd(integers));
 		BigDecimal r = gcd(l[0], l[1]);
 		for (int i = 2; i < l.length; i++)
 			r = gcd(r, l[i]);
@@ -104,54 +225,76 @@ public class MathUtils {
 	}
 
 	public static BigDecimal lcm(BigDecimal a, BigDecimal b) {
+		if (!Fraction.isFraction(a) && !Fraction.isFraction(b))
+			return new BigDecimal(GcdLcm.lcm(a.toBigInteger(), b.toBigInteger()));
 		a = a.abs();
 		b = b.abs();
-		return a.multiply(b).divide(gcd(a, b), mathContext);
+		return multiply(a, b).divide(gcd(a, b), mathContext);
 	}
 
 	public static BigDecimal lcm(BigDecimal... l) {
 		if (l.length < 2) {
-			throw new CalculationException(CalculationException.UNKNOWN_CONSTANT, "lcm: expected minimum 2, but found " + l.length);
+			throw new CalculationException(CalculationException.TOO_FEW_ARGUMENTS, "lcm: expected minimum 2, but found " + l.length);
 		}
+		BigInteger[] integers = toIntegers(l);
+		if (integers != null)
+			return new BigDecimal(GcdLcm.lcm(integers));
 		BigDecimal r = lcm(l[0], l[1]);
-		for (int i = 2; i < l.length; i++)
+		for (int i = 2; i < l.length; i++) {
+			EvaluationContext.checkCancelled();
 			r = lcm(r, l[i]);
+		}
 		return r;
 	}
 
+	/**
+	 * @return Values as integers or {@code null} if any of them has fractional part
+	 */
+	private static BigInteger[] toIntegers(BigDecimal[] values) {
+		BigInteger[] integers = new BigInteger[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (Fraction.isFraction(values[i]))
+				return null;
+			integers[i] = values[i].toBigInteger();
+		}
+		return integers;
+	}
+
 	public static BigDecimal tan(BigDecimal x) {
-		if(cos(x).setScale(HIGH_ROUND_SCALE, RoundingMode.HALF_UP).signum() == 0)
+		Trigonometry.SinCos sinCos = Trigonometry.sinCosWithGuard(toRadians(x), HIGH_ROUND_SCALE);
+		if (isZeroAtHighScale(sinCos.cos))
 			throw new CalculationException(CalculationException.INVALID_VALUE_FOR_TANGENT);
-		return BigDecimalMath.tan(x, mathContext);
+		return sinCos.sin.divide(sinCos.cos, mathContext);
 	}
 
 	public static BigDecimal arctan(BigDecimal x) {
-		return BigDecimalMath.atan(x, mathContext);
+		return fromRadians(BigDecimalMath.atan(x, angleContext()));
 	}
 
 	public static BigDecimal cot(BigDecimal x) {
-		if(sin(x).setScale(HIGH_ROUND_SCALE, RoundingMode.HALF_UP).signum() == 0)
+		Trigonometry.SinCos sinCos = Trigonometry.sinCosWithGuard(toRadians(x), HIGH_ROUND_SCALE);
+		if (isZeroAtHighScale(sinCos.sin))
 			throw new CalculationException(CalculationException.INVALID_VALUE_FOR_COTANGENT);
-		return BigDecimalMath.cot(x, mathContext);
+		return sinCos.cos.divide(sinCos.sin, mathContext);
 	}
 
 	public static BigDecimal arccot(BigDecimal x) {
-		return BigDecimalMath.acot(x, mathContext);
+		return fromRadians(BigDecimalMath.acot(x, angleContext()));
 	}
 
 	public static BigDecimal sin(BigDecimal x) {
-		return BigDecimalMath.sin(x, mathContext);
+		return Trigonometry.sinCos(toRadians(x), mathContext).sin;
 	}
 
 	public static BigDecimal arcsin(BigDecimal x) {
 		if(x.compareTo(BigDecimal.valueOf(-1)) < 0 || x.compareTo(BigDecimal.ONE) > 0)
 			throw new CalculationException(CalculationException.INVALID_ASIN_ACOS_VALUE);
-		return BigDecimalMath.asin(x, mathContext);
+		return fromRadians(BigDecimalMath.asin(x, angleContext()));
 	}
 
 	public static BigDecimal csc(BigDecimal x) {
-		BigDecimal sin = sin(x);
-		if(sin.setScale(HIGH_ROUND_SCALE, RoundingMode.HALF_UP).signum() == 0)
+		BigDecimal sin = Trigonometry.sinCosWithGuard(toRadians(x), HIGH_ROUND_SCALE).sin;
+		if (isZeroAtHighScale(sin))
 			throw new CalculationException(CalculationException.INVALID_VALUE_FOR_COSECANT);
 		return BigDecimal.ONE.divide(sin, mathContext);
 	}
@@ -163,22 +306,86 @@ public class MathUtils {
 	}
 
 	public static BigDecimal cos(BigDecimal x) {
-		return BigDecimalMath.cos(x, mathContext);
+		return Trigonometry.sinCos(toRadians(x), mathContext).cos;
 	}
 
 	public static BigDecimal arccos(BigDecimal x) {
 		if(x.compareTo(BigDecimal.valueOf(-1)) < 0 || x.compareTo(BigDecimal.ONE) > 0)
 			throw new CalculationException(CalculationException.INVALID_ASIN_ACOS_VALUE);
-		return BigDecimalMath.acos(x, mathContext);
+		return fromRadians(BigDecimalMath.acos(x, angleContext()));
 	}
 
 	public static BigDecimal sec(BigDecimal x) {
-		BigDecimal cos = cos(x);
-		if(cos.setScale(HIGH_ROUND_SCALE, RoundingMode.HALF_UP).signum() == 0)
+		BigDecimal cos = Trigonometry.sinCosWithGuard(toRadians(x), HIGH_ROUND_SCALE).cos;
+		if (isZeroAtHighScale(cos))
 			throw new CalculationException(CalculationException.INVALID_VALUE_FOR_SECANT);
 		return BigDecimal.ONE.divide(cos, mathContext);
 	}
 
+	private static MathContext angleContext() {
+		return new MathContext(HIGH_ROUND_SCALE + ANGLE_GUARD_DIGITS);
+	}
+
+	/**
+	 * Converts angle in current angle mode to radians.
+	 * Degrees and gradians are reduced modulo full turn exactly before conversion.
+	 */
+	public static BigDecimal toRadians(BigDecimal angle) {
+		AngleMode mode = EvaluationContext.currentAngleMode();
+		if (mode == AngleMode.RADIANS)
+			return angle;
+		MathContext working = angleContext();
+		return angle.remainder(mode.getFullTurn()).multiply(mode.radiansPerUnit(working), working);
+	}
+
+	/**
+	 * Converts angle in radians to current angle mode
+	 */
+	public static BigDecimal fromRadians(BigDecimal radians) {
+		AngleMode mode = EvaluationContext.currentAngleMode();
+		if (mode == AngleMode.RADIANS)
+			return radians.round(mathContext);
+		return radians.divide(mode.radiansPerUnit(angleContext()), mathContext);
+	}
+
+	/**
+	 * Converts angle between units. Result is not rounded to current precision,
+	 * so large angles keep enough digits for trigonometric functions.
+	 *
+	 * @throws CalculationException {@link CalculationException#DIGIT_LIMIT_EXCEEDED} if angle has more integer digits
+	 *                              than trigonometric functions accept
+	 */
+	public static BigDecimal convertAngle(BigDecimal angle, AngleMode from, AngleMode to) {
+		if (from == to)
+			return angle;
+		int integerDigits = Math.max(0, angle.precision() - angle.scale());
+		if (integerDigits > Trigonometry.MAX_REDUCTION_DIGITS)
+			throw new CalculationException(
+					CalculationException.DIGIT_LIMIT_EXCEEDED,
+					String.format("angle has %d integer digits, but limit is %d", integerDigits, Trigonometry.MAX_REDUCTION_DIGITS)
+			);
+		// digits of long angles are rounded up, so constants are cached for a few precisions only
+		if (integerDigits > ANGLE_DIGITS_STEP)
+			integerDigits = (integerDigits + ANGLE_DIGITS_STEP - 1) / ANGLE_DIGITS_STEP * ANGLE_DIGITS_STEP;
+		int precision = HIGH_ROUND_SCALE + ANGLE_GUARD_DIGITS + integerDigits;
+		EvaluationContext.checkDigits(precision);
+		EvaluationContext.checkCancelled();
+		MathContext working = new MathContext(precision);
+		if (from != AngleMode.RADIANS && to != AngleMode.RADIANS)
+			return angle.multiply(to.getFullTurn()).divide(from.getFullTurn(), working);
+		if (to == AngleMode.RADIANS)
+			return angle.multiply(from.radiansPerUnit(working), working);
+		return angle.divide(to.radiansPerUnit(working), working);
+	}
+
+	/**
+	 * Values which are zero after rounding to {@link #HIGH_ROUND_SCALE} decimal places are treated as zero,
+	 * e.g. {@code cos(pi/2)}
+	 */
+	private static boolean isZeroAtHighScale(BigDecimal x) {
+		return x.setScale(HIGH_ROUND_SCALE, RoundingMode.HALF_UP).signum() == 0;
+	}
+
 	public static BigDecimal arcsec(BigDecimal x) {
 		if(x.compareTo(BigDecimal.valueOf(-1)) > 0 && x.compareTo(BigDecimal.ONE) < 0)
 			throw new CalculationException(CalculationException.INVALID_VALUE_FOR_ASEC_ACSC);
@@ -188,76 +395,48 @@ public class MathUtils {
 	public static BigDecimal fact(BigDecimal a, int step) {
 		if (a.compareTo(factorialLimit) > 0)
 			throw new CalculationException(CalculationException.FACTORIAL_LIMIT_EXCEEDED);
-		if (a.signum() == 0)
+		if (a.signum() <= 0)
 			return BigDecimal.ONE;
-		if (step == 1 && a.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0)
-			return factTree(1L, a.longValue());
+		EvaluationContext.checkDigits(factorialDigits(a.doubleValue(), step));
+		if (step == 1)
+			return new BigDecimal(Factorials.factorial(a.intValue()));
+		if (!Fraction.isFraction(a))
+			return new BigDecimal(Factorials.multiFactorial(a.longValue(), step));
 		BigDecimal x = a;
 		BigDecimal ans = BigDecimal.ONE;
 		BigDecimal bStep = BigDecimal.valueOf(step);
 		for (; 0 <= x.compareTo(BigDecimal.ONE); x = x.subtract(bStep)) {
+			EvaluationContext.checkCancelled();
 			ans = ans.multiply(x);
 		}
 		return ans;
 	}
 
-	private static BigDecimal factTree(long l, long r) {
-		if (l > r)
-			return BigDecimal.ONE;
-		if (l == r)
-			return BigDecimal.valueOf(l);
-		if (r - l == 1)
-			return BigDecimal.valueOf(l * r);
-		long m = l + (r - l) / 2;
-		return factTree(l, m).multiply(factTree(m + 1, r));
-	}
-
+	/**
+	 * Drops fractional part (rounds towards zero)
+	 */
 	public static BigDecimal floor(BigDecimal x) {
-		String s = x.toPlainString();
-		int pos = s.indexOf(".");
-		if (pos == -1 || pos == s.length() - 1) {
+		if (x.scale() <= 0)
 			return x;
-		} else {
-			return new BigDecimal(s.substring(0, pos));
-		}
+		return x.setScale(0, RoundingMode.DOWN);
 	}
 
+	/**
+	 * Rounds away from zero
+	 */
 	public static BigDecimal ceil(BigDecimal x) {
-		String s = x.toPlainString();
-		int pos = s.indexOf(".");
-		if (pos == -1 || pos == s.length() - 1) {
+		if (x.scale() <= 0)
 			return x;
-		} else {
-			String afterDot = s.substring(pos + 1);
-			if (CalculatorUtils.removeZeros(afterDot).equals("0"))
-				return new BigDecimal(s.substring(0, pos)); // delete part after dot
-
-			BigDecimal b = abs(new BigDecimal(s.substring(0, pos)));
-			b = b.add(BigDecimal.ONE);
-			if (s.charAt(0) == '-')
-				b = b.multiply(BigDecimal.valueOf(-1));
-			return b;
-		}
+		return x.setScale(0, RoundingMode.UP);
 	}
 
+	/**
+	 * Rounds to nearest integer, halves are rounded away from zero
+	 */
 	public static BigDecimal round(BigDecimal x) {
-		String s = x.toPlainString();
-		int pos = s.indexOf(".");
-		if (pos == -1 || pos == s.length() - 1) {
+		if (x.scale() <= 0)
 			return x;
-		} else {
-			String newString = s.substring(0, pos);
-			char next = s.charAt(pos + 1);
-			if (next >= '0' && next < '5') {
-				return new BigDecimal(newString);
-			} else {
-				BigDecimal b = abs(new BigDecimal(newString));
-				b = b.add(BigDecimal.ONE);
-				if (newString.charAt(0) == '-')
-					b = b.multiply(BigDecimal.valueOf(-1));
-				return b;
-			}
-		}
+		return x.setScale(0, RoundingMode.HALF_UP);
 	}
 
 	public static BigDecimal rootWithBase(BigDecimal a, BigDecimal n) {
@@ -267,6 +446,9 @@ public class MathUtils {
 			throw new CalculationException(CalculationException.ROOT_OF_NEGATIVE_NUMBER);
 		if(n.signum() <= 0)
 			throw new CalculationException(CalculationException.ROOT_OF_NEGATIVE_OR_ZERO_DEGREE);
+		BigDecimal exact = ExactValues.root(a, n);
+		if (exact != null)
+			return exact.round(mathContext);
 		return BigDecimalMath.root(a, n, mathContext);
 	}
 
@@ -285,29 +467,72 @@ public class MathUtils {
 			else
 				return BigDecimal.ZERO;
 		}
+		if (Fraction.isFraction(n))
+			return fractionalPow(a, n);
 		if (n.signum() < 0) {
-			BigDecimal result = pow(a, n.multiply(BigDecimal.valueOf(-1)));
-			String strRes = BigDecimal.ONE.divide(result, mathContext).toPlainString();
-			return new BigDecimal(CalculatorUtils.removeZeros(strRes));
-		}
-		if (Fraction.isFraction(n)) {
-			BigDecimal scaledN = n.setScale(3, RoundingMode.HALF_DOWN);
-			Fraction fraction = new Fraction(scaledN);
-			return MathUtils.rootWithBase(sysPow(a, fraction.getNumerator()), new BigDecimal(fraction.getDenominator()));
+			BigDecimal result;
+			BigDecimal positiveN = n.negate();
+			if (positiveN.compareTo(LONG_MAX) <= 0 && magnitudeFitsScale(a, positiveN)) {
+				// only first digits of a^n affect 1 / a^n, so there is no need in exact power
+				result = BigArithmetic.pow(a, positiveN.longValueExact(), new MathContext(HIGH_ROUND_SCALE + 5));
+			} else {
+				result = pow(a, n.negate());
+			}
+			return CalculatorUtils.removeZeros(BigDecimal.ONE.divide(result, mathContext));
 		}
 		return sysPow(a, n.toBigInteger());
 	}
 
-	private static BigDecimal sysPow(BigDecimal a, BigInteger n) {
-		if (n.compareTo(BigInteger.ZERO) == 0) {
-			return BigDecimal.ONE;
+	/**
+	 * Computes {@code a^(p/q)}, where {@code p/q} is exact value of non-integer exponent.<br>
+	 * If {@code q} is small, result is {@code a^k * root(a^r, q)}, where {@code p = k*q + r},
+	 * otherwise it is {@code exp(n * ln(a))}. Both are computed with guard digits, which cover
+	 * amplification of error by magnitude of {@code n * ln(a)}, and rounded to current precision.
+	 */
+	private static BigDecimal fractionalPow(BigDecimal a, BigDecimal n) {
+		BigDecimal strippedN = n.stripTrailingZeros();
+		BigInteger numerator = strippedN.unscaledValue();
+		BigInteger denominator = BigInteger.TEN.pow(strippedN.scale());
+		BigInteger g = numerator.gcd(denominator);
+		numerator = numerator.divide(g);
+		denominator = denominator.divide(g);
+
+		boolean negative = false;
+		if (a.signum() < 0) {
+			if (!denominator.testBit(0))
+				throw new CalculationException(CalculationException.ROOT_OF_NEGATIVE_NUMBER);
+			// odd root of negative number is negative
+			negative = numerator.testBit(0);
+			a = a.negate();
 		}
-		if (n.remainder(BigInteger.valueOf(2)).compareTo(BigInteger.ONE) == 0) {
-			return sysPow(a, n.subtract(BigInteger.ONE)).multiply(a);
+
+		double magnitude = Math.abs(n.doubleValue() * (log10(a.unscaledValue()) - a.scale()));
+		EvaluationContext.checkDigits(magnitude);
+		int guardDigits = POW_GUARD_DIGITS + (int) Math.log10(magnitude * Math.log(10) + 1);
+		MathContext working = new MathContext(HIGH_ROUND_SCALE + guardDigits);
+
+		BigDecimal result;
+		BigInteger[] quotientAndRemainder = numerator.abs().divideAndRemainder(denominator);
+		if (denominator.compareTo(BigInteger.valueOf(MAX_ROOT_DEGREE)) <= 0 && quotientAndRemainder[0].bitLength() < Long.SIZE - 1) {
+			BigDecimal root = BigDecimalMath.root(
+					BigArithmetic.pow(a, quotientAndRemainder[1].longValue()),
+					new BigDecimal(denominator),
+					working
+			);
+			result = BigArithmetic.pow(a, quotientAndRemainder[0].longValue(), working).multiply(root, working);
+			if (numerator.signum() < 0)
+				result = BigDecimal.ONE.divide(result, working);
 		} else {
-			BigDecimal b = sysPow(a, n.divide(BigInteger.valueOf(2)));
-			return b.multiply(b);
+			result = BigDecimalMath.exp(n.multiply(Logarithms.ln(a, working), working), working);
 		}
+		result = result.round(mathContext);
+		return negative ? result.negate() : result;
+	}
+
+	private static BigDecimal sysPow(BigDecimal a, BigInteger n) {
+		a = a.stripTrailingZeros();
+		EvaluationContext.checkDigits(powDigits(a, n));
+		return BigArithmetic.pow(a, n);
 	}
 
 }
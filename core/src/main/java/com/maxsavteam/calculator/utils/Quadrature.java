@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.maxsavteam.calculator.utils;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definite integrals of functions in {@code double} arithmetic with adaptive Gauss-Kronrod rule.<br>
+ * Every interval is integrated with 15-point Kronrod rule, difference with embedded 7-point Gauss rule
+ * is estimation of error. Intervals whose error is greater than their share of tolerance are bisected.
+ * All intervals which are bisected in one round are evaluated with one call of {@link Integrand},
+ * so integrand can evaluate points in batch.
+ */
+public class Quadrature {
+
+	/**
+	 * Integral is accepted when estimated error is less than this part of its value
+	 */
+	public static final double RELATIVE_TOLERANCE = 1e-10;
+
+	/**
+	 * Integration fails when there are more intervals than this
+	 */
+	private static final int MAX_INTERVALS = 4096;
+
+	private static final double[] KRONROD_NODES = {
+			0.991455371120812639206854697526329,
+			0.949107912342758524526189684047851,
+			0.864864423359769072789712788640926,
+			0.741531185599394439863864773280788,
+			0.586087235467691130294144845693013,
+			0.405845151377397166906606412076961,
+			0.207784955007898467600689403773245,
+			0.0
+	};
+
+	private static final double[] KRONROD_WEIGHTS = {
+			0.022935322010529224963732008058970,
+			0.063092092629978553290700663189204,
+			0.104790010322250183839876322541518,
+			0.140653259715525918745189590510238,
+			0.169004726639267902826583426598550,
+			0.190350578064785409913256402421014,
+			0.204432940075298892414161999234649,
+			0.209482141084727828012999174891714
+	};
+
+	/**
+	 * Weights of Gauss nodes, which are Kronrod nodes with odd indices
+	 */
+	private static final double[] GAUSS_WEIGHTS = {
+			0.129484966168869693270611432679082,
+			0.279705391489276667901467771423780,
+			0.381830050505118944950369775488975,
+			0.417959183673469387755102040816327
+	};
+
+	private static final int POINTS_PER_INTERVAL = 15;
+
+	/**
+	 * Upper bound of count of evaluations of integrand, which is used to estimate cost of integrals
+	 */
+	public static final int MAX_EVALUATIONS = MAX_INTERVALS * POINTS_PER_INTERVAL;
+
+	/**
+	 * Function which is evaluated for many points at once
+	 */
+	public interface Integrand {
+		/**
+		 * @param x Points
+		 * @param y Array for values of function at points, NaN if function is not defined at point
+		 * @throws CalculationException if function cannot be evaluated, it is thrown from integration as is
+		 */
+		void evaluate(double[] x, double[] y);
+	}
+
+	public static class Result {
+		private final double value;
+		private final double errorEstimate;
+		private final int evaluations;
+
+		Result(double value, double errorEstimate, int evaluations) {
+			this.value = value;
+			this.errorEstimate = errorEstimate;
+			this.evaluations = evaluations;
+		}
+
+		public double getValue() {
+			return value;
+		}
+
+		/**
+		 * @return Estimated absolute error of value
+		 */
+		public double getErrorEstimate() {
+			return errorEstimate;
+		}
+
+		/**
+		 * @return Count of points where integrand was evaluated
+		 */
+		public int getEvaluations() {
+			return evaluations;
+		}
+	}
+
+	/**
+	 * Integrates function over {@code [a, b]}. If {@code a > b}, integral is negated.
+	 *
+	 * @throws CalculationException {@link CalculationException#UNDEFINED} if integrand is NaN at some point,
+	 *                              {@link CalculationException#NOT_CONVERGED} if required accuracy is not reached,
+	 *                              or error thrown by integrand
+	 */
+	public static Result integrate(Integrand integrand, double a, double b) {
+		if (!Double.isFinite(a) || !Double.isFinite(b))
+			throw new CalculationException(CalculationException.UNDEFINED, "bounds of integral are not finite");
+		if (a == b)
+			return new Result(0, 0, 0);
+		if (a > b) {
+			Result result = integrate(integrand, b, a);
+			return new Result(-result.value, result.errorEstimate, result.evaluations);
+		}
+		List<Interval> intervals = evaluate(integrand, new double[]{a}, new double[]{b});
+		int evaluations = POINTS_PER_INTERVAL;
+		while (true) {
+			EvaluationContext.checkCancelled();
+			double value = 0;
+			double error = 0;
+			double absoluteValue = 0;
+			for (Interval interval : intervals) {
+				value += interval.value;
+				error += interval.error;
+				absoluteValue += interval.absoluteValue;
+			}
+			// integrals which are close to 0 because of cancellation are compared with integral of |f|
+			double tolerance = RELATIVE_TOLERANCE * Math.max(Math.abs(value), 1e-5 * absoluteValue);
+			if (error <= tolerance)
+				return new Result(value, error, evaluations);
+			if (intervals.size() >= MAX_INTERVALS)
+				throw new CalculationException(CalculationException.NOT_CONVERGED,
+						"integral " + value + " has error " + error + " after " + evaluations + " evaluations");
+
+			List<Interval> settled = new ArrayList<>();
+			List<Interval> split = new ArrayList<>();
+			for (Interval interval : intervals) {
+				// interval gets share of tolerance proportional to its length
+				double share = tolerance * (interval.to - interval.from) / (b - a);
+				if (interval.error > share && interval.to - interval.from > Math.ulp(interval.from) * 16)
+					split.add(interval);
+				else
+					settled.add(interval);
+			}
+			if (split.isEmpty() || intervals.size() + split.size() > MAX_INTERVALS)
+				throw new CalculationException(CalculationException.NOT_CONVERGED,
+						"integral " + value + " has error " + error + " after " + evaluations + " evaluations");
+			double[] from = new double[split.size() * 2];
+			double[] to = new double[from.length];
+			for (int i = 0; i < split.size(); i++) {
+				Interval interval = split.get(i);
+				double mid = (interval.from + interval.to) / 2;
+				from[2 * i] = interval.from;
+				to[2 * i] = mid;
+				from[2 * i + 1] = mid;
+				to[2 * i + 1] = interval.to;
+			}
+			settled.addAll(evaluate(integrand, from, to));
+			evaluations += from.length * POINTS_PER_INTERVAL;
+			intervals = settled;
+		}
+	}
+
+	/**
+	 * Applies Gauss-Kronrod rule to intervals {@code [from[i], to[i]]}
+	 */
+	private static List<Interval> evaluate(Integrand integrand, double[] from, double[] to) {
+		int count = from.length;
+		double[] x = new double[count * POINTS_PER_INTERVAL];
+		for (int i = 0; i < count; i++) {
+			double center = (from[i] + to[i]) / 2;
+			double halfLength = (to[i] - from[i]) / 2;
+			int offset = i * POINTS_PER_INTERVAL;
+			x[offset] = center;
+			for (int j = 0; j < 7; j++) {
+				x[offset + 1 + 2 * j] = center - halfLength * KRONROD_NODES[j];
+				x[offset + 2 + 2 * j] = center + halfLength * KRONROD_NODES[j];
+			}
+		}
+		double[] y = new double[x.length];
+		integrand.evaluate(x, y);
+
+		List<Interval> intervals = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int offset = i * POINTS_PER_INTERVAL;
+			double halfLength = (to[i] - from[i]) / 2;
+			double center = y[offset];
+			double kronrod = center * KRONROD_WEIGHTS[7];
+			double gauss = center * GAUSS_WEIGHTS[3];
+			double absolute = Math.abs(center) * KRONROD_WEIGHTS[7];
+			for (int j = 0; j < 7; j++) {
+				double left = y[offset + 1 + 2 * j];
+				double right = y[offset + 2 + 2 * j];
+				if (Double.isNaN(left) || Double.isNaN(right))
+					throw new CalculationException(CalculationException.UNDEFINED,
+							"integrand is not defined at " + (Double.isNaN(left) ? x[offset + 1 + 2 * j] : x[offset + 2 + 2 * j]));
+				kronrod += (left + right) * KRONROD_WEIGHTS[j];
+				absolute += (Math.abs(left) + Math.abs(right)) * KRONROD_WEIGHTS[j];
+				if (j % 2 == 1)
+					gauss += (left + right) * GAUSS_WEIGHTS[j / 2];
+			}
+			if (Double.isNaN(center))
+				throw new CalculationException(CalculationException.UNDEFINED, "integrand is not defined at " + x[offset]);
+			intervals.add(new Interval(from[i], to[i], kronrod * halfLength,
+					Math.abs((kronrod - gauss) * halfLength), absolute * halfLength));
+		}
+		return intervals;
+	}
+
+	private static final class Interval {
+		private final double from;
+		private final double to;
+		private final double value;
+		private final double error;
+		private final double absoluteValue;
+
+		Interval(double from, double to, double value, double error, double absoluteValue) {
+			this.from = from;
+			this.to = to;
+			this.value = value;
+			this.error = error;
+			this.absoluteValue = absoluteValue;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.maxsavteam.calculator.utils;
+
+import com.maxsavteam.calculator.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Kernel of trigonometric functions.<br>
+ * Argument is reduced once: {@code x = k * pi/2 + r}, where {@code |r| <= pi/4}.
+ * Then sine and cosine of {@code r} are computed together in one Taylor series
+ * (terms {@code r^n/n!} go to sine and cosine in turn) and mapped to quadrant {@code k mod 4}.
+ * All other functions are derived from this pair.
+ */
+class Trigonometry {
+
+	private static final int GUARD_DIGITS = 10;
+
+	/**
+	 * Arguments with more integer digits are rejected. Reduction needs pi with that many digits,
+	 * which cannot be interrupted by cancellation and takes seconds above this size.
+	 */
+	static final int MAX_REDUCTION_DIGITS = 5000;
+
+	/**
+	 * Cancellation is checked after this count of series terms
+	 */
+	private static final int CHECK_INTERVAL = 64;
+
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	/**
+	 * Sine and cosine of the same argument
+	 */
+	static final class SinCos {
+		final BigDecimal sin;
+		final BigDecimal cos;
+
+		SinCos(BigDecimal sin, BigDecimal cos) {
+			this.sin = sin;
+			this.cos = cos;
+		}
+	}
+
+	/**
+	 * @return Sine and cosine of {@code x} with precision of {@code mc}
+	 */
+	static SinCos sinCos(BigDecimal x, MathContext mc) {
+		SinCos exact = sinCosWithGuard(x, mc.getPrecision());
+		return new SinCos(exact.sin.round(mc), exact.cos.round(mc));
+	}
+
+	/**
+	 * @return Sine and cosine with guard digits, so values derived from them can be rounded to {@code precision}
+	 */
+	static SinCos sinCosWithGuard(BigDecimal x, int precision) {
+		// argument is halved several times before series and then doubled back
+		int halvings = Math.max(0, (int) Math.sqrt(precision) - 3);
+		int integerDigits = Math.max(0, x.precision() - x.scale());
+		if (integerDigits > MAX_REDUCTION_DIGITS)
+			throw new CalculationException(
+					CalculationException.DIGIT_LIMIT_EXCEEDED,
+					String.format("argument of trigonometric function has %d integer digits, but limit is %d", integerDigits, MAX_REDUCTION_DIGITS)
+			);
+		// integer digits are needed only to reduce argument, series is computed with precision of result
+		MathContext seriesContext = new MathContext(precision + GUARD_DIGITS + halvings);
+		MathContext working = new MathContext(seriesContext.getPrecision() + integerDigits);
+		EvaluationContext.checkDigits(working.getPrecision());
+		EvaluationContext.checkCancelled();
+
+		SinCos special = ExactValues.specialAngle(x, working, precision);
+		if (special != null)
+			return special;
+
+		BigDecimal halfPi = MathConstants.pi(working).divide(TWO, working);
+		BigDecimal k = x.divide(halfPi, working).setScale(0, RoundingMode.HALF_EVEN);
+		BigDecimal r = x.subtract(k.multiply(halfPi), working);
+		int quadrant = k.toBigInteger().mod(BigInteger.valueOf(4)).intValue();
+		EvaluationContext.checkCancelled();
+
+		SinCos reduced = series(r.divide(TWO.pow(halvings), seriesContext), seriesContext);
+		BigDecimal sin = reduced.sin;
+		BigDecimal cos = reduced.cos;
+		for (int i = 0; i < halvings; i++) {
+			// sin 2a = 2 sin a cos a, cos 2a = 1 - 2 sin^2 a
+			BigDecimal newSin = TWO.multiply(sin).multiply(cos, seriesContext);
+			cos = BigDecimal.ONE.subtract(TWO.multiply(sin.multiply(sin, seriesContext)), seriesContext);
+			sin = newSin;
+		}
+
+		switch (quadrant) {
+			case 1:
+				return new SinCos(cos, sin.negate());
+			case 2:
+				return new SinCos(sin.negate(), cos.negate());
+			case 3:
+				return new SinCos(cos.negate(), sin);
+			default:
+				return new SinCos(sin, cos);
+		}
+	}
+
+	private static SinCos series(BigDecimal r, MathContext mc) {
+		BigDecimal epsilon = BigDecimal.ONE.movePointLeft(mc.getPrecision() + 1);
+		BigDecimal sin = BigDecimal.ZERO;
+		BigDecimal cos = BigDecimal.ONE;
+		BigDecimal term = BigDecimal.ONE;
+		for (int n = 1; ; n++) {
+			if (n % CHECK_INTERVAL == 0)
+				EvaluationContext.checkCancelled();
+			// term = r^n / n!
+			term = term.multiply(r).divide(BigDecimal.valueOf(n), mc);
+			if (term.abs().compareTo(epsilon) < 0)
+				break;
+			switch (n % 4) {
+				case 0:
+					cos = cos.add(term, mc);
+					break;
+				case 1:
+					sin = sin.add(term, mc);
+					break;
+				case 2:
+					cos = cos.subtract(term, mc);
+					break;
+				default:
+					sin = sin.subtract(term, mc);
+					break;
+			}
+		}
+		return new SinCos(sin, cos);
+	}
+
+}
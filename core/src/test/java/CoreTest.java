@@ -14,9 +14,37 @@
  * this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.maxsavteam.calculator.AngleMode;
 import com.maxsavteam.calculator.Calculator;
+import com.maxsavteam.calculator.CancellationToken;
+import com.maxsavteam.calculator.CompiledExpression;
+import com.maxsavteam.calculator.CostEstimate;
+import com.maxsavteam.calculator.Derivatives;
+import com.maxsavteam.calculator.PlotSamples;
+import com.maxsavteam.calculator.Solution;
+import com.maxsavteam.calculator.exceptions.CalculationException;
+import com.maxsavteam.calculator.exceptions.TreeBuildingException;
+import com.maxsavteam.calculator.functions.FunctionHandle;
+import com.maxsavteam.calculator.results.CalculationResult;
+import com.maxsavteam.calculator.results.LazyNumberList;
+import com.maxsavteam.calculator.results.NumberList;
+import com.maxsavteam.calculator.utils.BigArithmetic;
+import com.maxsavteam.calculator.utils.Factorials;
+import com.maxsavteam.calculator.utils.Logarithms;
+import com.maxsavteam.calculator.utils.MathConstants;
+import com.maxsavteam.calculator.utils.MathUtils;
+import com.maxsavteam.calculator.utils.Quadrature;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CoreTest {
@@ -53,12 +81,587 @@ class CoreTest {
 		assertEquals("-1", calc("log0.5(2)"));
 	}
 
+	@Test
+	void testGrammar(){
+		assertEquals("3", calc("[2.5]"));
+		assertEquals("2", calc("\u23A32.7\u23A6"));
+		assertEquals("3", calc("\u23A12.1\u23A4"));
+		assertEquals("120", calc("5!"));
+		assertEquals("15", calc("5!!"));
+		assertEquals("12", calc("2(1+5)"));
+	}
+
+	@Test
+	void testTryCalculate(){
+		CalculationResult result = calculator.tryCalculate("2+2");
+		assertTrue(result.isSuccess());
+		assertEquals("4", ((CalculationResult.Success) result).getResult().format());
+
+		result = calculator.tryCalculate("1/0");
+		assertFalse(result.isSuccess());
+		assertEquals(CalculationException.DIVISION_BY_ZERO, ((CalculationResult.Failure) result).getErrorCode());
+
+		result = calculator.tryCalculate("(1+2]");
+		assertEquals(CalculationException.INVALID_BRACKETS_SEQUENCE, ((CalculationResult.Failure) result).getErrorCode());
+		assertEquals(4, ((CalculationResult.Failure) result).getPosition());
+
+		result = calculator.tryCalculate("1.2.3");
+		assertEquals(CalculationException.NUMBER_FORMAT_EXCEPTION, ((CalculationResult.Failure) result).getErrorCode());
+
+		assertTrue(CalculationException.isStackTraceEnabled());
+		assertThrows(CalculationException.class, () -> calculator.calculate("1/0"));
+	}
+
+	@Test
+	void testCancellation(){
+		CancellationToken cancelled = new CancellationToken();
+		cancelled.cancel();
+		CalculationException e = assertThrows(CalculationException.class, () -> calculator.calculate("2+2", cancelled));
+		assertEquals(CalculationException.EVALUATION_CANCELLED, e.getErrorCode());
+
+		long start = System.nanoTime();
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("90000!!", CancellationToken.withTimeout(50)));
+		assertEquals(CalculationException.EVALUATION_TIME_LIMIT_EXCEEDED, e.getErrorCode());
+		assertTrue(System.nanoTime() - start < 2_000_000_000L);
+
+		assertEquals("4", calculator.calculate("2+2", CancellationToken.withTimeout(10_000)).format());
+	}
+
+	@Test
+	void testDigitLimit(){
+		CalculationException e = assertThrows(CalculationException.class, () -> calculator.calculate("9^(9^9)"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+
+		Calculator limited = new Calculator();
+		limited.setDigitLimit(100);
+		assertEquals("1267650600228229401496703205376", limited.calculate("2^100").format());
+		e = assertThrows(CalculationException.class, () -> limited.calculate("100!"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> limited.calculate("2^200*2^200"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		assertTrue(calculator.tryCalculate("10^(10^10)") instanceof CalculationResult.Failure);
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("0.1^(10^10)"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> limited.calculate("10^200"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> limited.calculate("sin(10^90)"));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+
+		long start = System.nanoTime();
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("sin(10^20000)", CancellationToken.withTimeout(1000)));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		assertTrue(System.nanoTime() - start < 1_000_000_000L);
+	}
+
+	@Test
+	void testCostEstimate(){
+		CostEstimate simple = calculator.estimateCost("1+2*3");
+		assertEquals(5, simple.getNodeCount());
+		assertEquals(0, simple.getTranscendentalCalls());
+
+		CostEstimate trig = calculator.estimateCost("sin(1)+cos(2)");
+		assertEquals(2, trig.getTranscendentalCalls());
+
+		CostEstimate factorial = calculator.estimateCost("(2*500)!");
+		assertEquals(1000, factorial.getMaxFactorialOperand());
+
+		CostEstimate power = calculator.estimateCost("9^(9^9)");
+		assertEquals(387420489, power.getMaxPowerExponent());
+		assertTrue(power.getMaxDigits() > calculator.getDigitLimit());
+
+		CostEstimate list = calculator.estimateCost("sum(1;2;3;4)");
+		assertEquals(4, list.getListElements());
+
+		assertTrue(simple.compareTo(trig) < 0);
+		assertTrue(trig.compareTo(factorial) < 0);
+		assertTrue(factorial.compareTo(power) < 0);
+
+		// generators and integrals evaluate their bodies many times
+		CostEstimate range = calculator.estimateCost("sum(range(1;10^9))");
+		assertEquals(1_000_000_000, range.getListElements());
+		assertTrue(trig.compareTo(range) < 0);
+		CostEstimate seq = calculator.estimateCost("seq(sin(i);i;1;1000)");
+		assertEquals(1000, seq.getListElements());
+		assertTrue(calculator.estimateCost("sigma(sin(i);i;1;1000)").getScore() > 100 * trig.getScore());
+		assertTrue(calculator.estimateCost("integrate(sin(x);x;0;1)").getScore() > 10_000 * trig.getScore());
+	}
+
+	@Test
+	void testFactorial(){
+		assertEquals("1", calc("0!"));
+		assertEquals("1", calc("1!"));
+		assertEquals("3628800", calc("10!"));
+		assertEquals("2432902008176640000", calc("20!"));
+		assertEquals("51090942171709440000", calc("21!"));
+		assertEquals("3840", calc("10!!"));
+		assertEquals("280", calc("10!!!"));
+		assertEquals("5.25", calc("3.5!!"));
+
+		// names followed by suffix operators are their operands
+		Calculator calculator = new Calculator();
+		Map<String, NumberList> five = Map.of("w", NumberList.of(BigDecimal.valueOf(5)));
+		assertEquals("120", calculator.calculate("w!", five, null).format());
+		assertEquals("15", calculator.calculate("w!!", five, null).format());
+		assertEquals("0.05", calculator.calculate("w%", five, null).format());
+		assertEquals("0.03141593", calc("pi%"));
+		assertEquals("(1; 2; 6; 24; 120)", calc("seq(i!;i;1;5)"));
+
+		BigInteger expected = BigInteger.ONE;
+		for (int i = 2; i <= 3000; i++)
+			expected = expected.multiply(BigInteger.valueOf(i));
+		assertEquals(expected, Factorials.factorial(3000));
+		assertEquals(expected.multiply(BigInteger.valueOf(3001)), Factorials.factorial(3001));
+
+		expected = BigInteger.ONE;
+		for (int i = 2999; i > 0; i -= 2)
+			expected = expected.multiply(BigInteger.valueOf(i));
+		assertEquals(expected, Factorials.multiFactorial(2999, 2));
+	}
+
+	@Test
+	void testBigArithmetic(){
+		Random random = new Random(42);
+		BigInteger a = new BigInteger(400_000, random);
+		BigInteger b = new BigInteger(300_000, random).negate();
+		BigInteger c = new BigInteger(140_000, random);
+		assertEquals(a.multiply(b), BigArithmetic.multiply(a, b));
+		assertEquals(a.multiply(a), BigArithmetic.multiply(a, a));
+		assertEquals(a.multiply(c), BigArithmetic.multiply(a, c));
+		assertEquals(BigInteger.valueOf(3).pow(100_000), BigArithmetic.pow(BigInteger.valueOf(3), 100_000));
+
+		BigDecimal x = new BigDecimal("1.0001");
+		assertEquals(x.pow(1000), BigArithmetic.pow(x, 1000));
+		assertEquals(x.pow(1000, MathContext.DECIMAL64), BigArithmetic.pow(x, 1000, MathContext.DECIMAL64));
+		assertEquals(new BigDecimal("-1E-9"), BigArithmetic.pow(new BigDecimal("-0.001"), BigInteger.valueOf(3)));
+
+		assertEquals("1024", calc("2^10"));
+		assertEquals("0.00097656", calc("2^(-10)"));
+		BigDecimal inverse = BigDecimal.ONE.divide(BigDecimal.valueOf(2).pow(1000), new MathContext(MathUtils.getHighRoundScale()));
+		assertEquals(0, inverse.compareTo(MathUtils.pow(BigDecimal.valueOf(2), BigDecimal.valueOf(-1000))));
+	}
+
+	@Test
+	void testFractionalPow(){
+		assertEquals(0, new BigDecimal("3.9972283719618100877").compareTo(MathUtils.pow(BigDecimal.valueOf(2), new BigDecimal("1.999"))));
+		assertEquals(0, new BigDecimal("1.4142135623730950488").compareTo(MathUtils.pow(BigDecimal.valueOf(2), new BigDecimal("0.5"))));
+		assertEquals(0, new BigDecimal("-0.5").compareTo(MathUtils.pow(BigDecimal.valueOf(-32), new BigDecimal("-0.2"))));
+		assertEquals(0, new BigDecimal("1.0893418703579705580").compareTo(MathUtils.pow(BigDecimal.valueOf(2), new BigDecimal("0.1234567890123"))));
+		assertEquals("2", calc("4^0.5"));
+		assertEquals("0.03162278", calc("10^(-1.5)"));
+
+		CalculationException e = assertThrows(CalculationException.class, () -> calc("(-4)^0.5"));
+		assertEquals(CalculationException.ROOT_OF_NEGATIVE_NUMBER, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calc("(-8)^(1/3)"));
+		assertEquals(CalculationException.ROOT_OF_NEGATIVE_NUMBER, e.getErrorCode());
+	}
+
+	@Test
+	void testConstants(){
+		MathContext mc = new MathContext(50);
+		assertEquals(new BigDecimal("3.1415926535897932384626433832795028841971693993751"), MathConstants.pi(mc));
+		assertEquals(new BigDecimal("2.7182818284590452353602874713526624977572470937000"), MathConstants.e(mc));
+		assertEquals(new BigDecimal("1.6180339887498948482045868343656381177203091798058"), MathConstants.phi(mc));
+		assertEquals(new BigDecimal("0.69314718055994530941723212145817656807550013436026"), MathConstants.ln2(mc));
+		assertEquals(new BigDecimal("3.1415926535897932385"), MathConstants.pi(new MathContext(20)));
+		assertSame(MathConstants.pi(mc), MathConstants.pi(mc));
+	}
+
+	@Test
+	void testTrigonometry(){
+		assertEquals("0.84147098", calc("sin(1)"));
+		assertEquals("-1", calc("cos(pi)"));
+		assertEquals("-0.58721392", calc("tan(100)"));
+		assertEquals(0, new BigDecimal("0.84147098480789650665").compareTo(MathUtils.sin(BigDecimal.ONE)));
+		assertEquals(0, new BigDecimal("0.71011935871614473950").compareTo(MathUtils.cos(new BigDecimal("12345.678"))));
+
+		BigDecimal pi = MathConstants.pi(new MathContext(40));
+		CalculationException e = assertThrows(CalculationException.class, () -> MathUtils.tan(pi.divide(BigDecimal.valueOf(2))));
+		assertEquals(CalculationException.INVALID_VALUE_FOR_TANGENT, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> MathUtils.cot(pi));
+		assertEquals(CalculationException.INVALID_VALUE_FOR_COTANGENT, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calc("csc(0)"));
+		assertEquals(CalculationException.INVALID_VALUE_FOR_COSECANT, e.getErrorCode());
+
+		BigDecimal tiny = new BigDecimal("1E-19");
+		assertEquals(0, tiny.compareTo(MathUtils.sin(tiny)));
+		assertEquals(0, tiny.compareTo(MathUtils.tan(tiny)));
+		assertEquals(1e19, MathUtils.cot(tiny).doubleValue());
+		assertEquals("10000000000000000000", calc("1/sin(0.0000000000000000001)"));
+		assertEquals("-0.87344206", calc("cos(10^4000)"));
+	}
+
+	@Test
+	void testExactValues(){
+		assertEquals("12", calc("sqrt(144)"));
+		assertEquals("3", calc("sqrt3(27)"));
+		assertEquals("1.5", calc("sqrt(2.25)"));
+		assertEquals("0.01", calc("sqrt(0.0001)"));
+		assertEquals(0, new BigDecimal("12345678901234567891").compareTo(
+				MathUtils.rootWithBase(new BigDecimal("12345678901234567891").pow(3), BigDecimal.valueOf(3))));
+
+		assertEquals("10", calc("log2(1024)"));
+		assertEquals("-3", calc("log(0.001)"));
+		assertEquals("-2", calc("log0.5(4)"));
+		assertEquals("0", calc("ln(1)"));
+
+		assertEquals(BigDecimal.ZERO, MathUtils.sin(MathUtils.pi()));
+		assertEquals(new BigDecimal("0.5"), MathUtils.sin(MathUtils.pi().divide(BigDecimal.valueOf(6), new MathContext(MathUtils.getHighRoundScale()))));
+		assertEquals("0.5", calc("cos(60\u00B0)"));
+		assertEquals("1", calc("tan(45\u00B0)"));
+		assertEquals("0.25881905", calc("sin(15\u00B0)"));
+		CalculationException e = assertThrows(CalculationException.class, () -> MathUtils.tan(MathUtils.pi().divide(BigDecimal.valueOf(2))));
+		assertEquals(CalculationException.INVALID_VALUE_FOR_TANGENT, e.getErrorCode());
+	}
+
+	@Test
+	void testLogarithms(){
+		MathContext mc = new MathContext(20);
+		assertEquals(new BigDecimal("-2.3025950930440460174"), Logarithms.ln(new BigDecimal("0.099999"), mc));
+		assertEquals(new BigDecimal("-0.00010000500033335833533"), Logarithms.ln(new BigDecimal("0.9999"), mc));
+		assertEquals(new BigDecimal("230258.50929940456840"), Logarithms.ln(BigDecimal.ONE.movePointRight(100000), mc));
+
+		BigDecimal[] logs = Logarithms.log(new BigDecimal[]{BigDecimal.valueOf(2), BigDecimal.valueOf(3)}, new BigDecimal("1.05"), mc);
+		assertEquals(new BigDecimal("14.206699082890474130"), logs[0]);
+		assertEquals(new BigDecimal("22.517085305411041965"), logs[1]);
+
+		assertEquals("0.69314718", calc("ln(2)"));
+		assertEquals("14.20669908", calc("log1.05(2)"));
+		CalculationException e = assertThrows(CalculationException.class, () -> calc("ln(0)"));
+		assertEquals(CalculationException.NEGATIVE_PARAMETER_OF_LOG, e.getErrorCode());
+	}
+
+	@Test
+	void testGcdLcm(){
+		assertEquals("6", calc("gcd(12;18)"));
+		assertEquals("36", calc("lcm(12;18)"));
+		assertEquals("5", calc("gcd(-15;10;25)"));
+		assertEquals("0.5", calc("gcd(1.5;2)"));
+		assertEquals(new BigDecimal("12345678901234567890123456789"),
+				MathUtils.lcm(new BigDecimal("12345678901234567890123456789"), BigDecimal.ONE));
+
+		BigDecimal[] values = new BigDecimal[20000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = BigDecimal.valueOf(6L * (i + 1));
+		assertEquals(BigDecimal.valueOf(6), MathUtils.gcd(values));
+		values[12345] = BigDecimal.valueOf(7);
+		assertEquals(BigDecimal.ONE, MathUtils.gcd(values));
+		BigDecimal[] small = new BigDecimal[10000];
+		for (int i = 0; i < small.length; i++)
+			small[i] = BigDecimal.valueOf(i % 10 + 1);
+		assertEquals(BigDecimal.valueOf(2520), MathUtils.lcm(small));
+
+		CalculationException e = assertThrows(CalculationException.class, () -> MathUtils.gcd(BigDecimal.ONE));
+		assertEquals(CalculationException.TOO_FEW_ARGUMENTS, e.getErrorCode());
+	}
+
+	@Test
+	void testAngleMode(){
+		Calculator calculator = new Calculator();
+		assertEquals("0.5", calculator.calculate("sin(30\u00B0)").format());
+		assertEquals("3.14159265", calculator.calculate("180\u00B0").format());
+		assertEquals("0.93969262", calculator.calculate("cos((10^100+60)\u00B0)").format());
+		long start = System.nanoTime();
+		CalculationException e = assertThrows(CalculationException.class,
+				() -> calculator.calculate("sin((10^40000)\u00B0)", CancellationToken.withTimeout(2000)));
+		assertEquals(CalculationException.DIGIT_LIMIT_EXCEEDED, e.getErrorCode());
+		assertTrue(System.nanoTime() - start < 2_000_000_000L);
+
+		calculator.setAngleMode(AngleMode.DEGREES);
+		assertEquals("0.5", calculator.calculate("sin(30)").format());
+		assertEquals("1", calculator.calculate("tan(45)").format());
+		assertEquals("-0.98480775", calculator.calculate("sin(1000000000)").format());
+		assertEquals("30", calculator.calculate("asin(0.5)").format());
+		assertEquals("90", calculator.calculate("100\u1DA2").format());
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("tan(270)"));
+		assertEquals(CalculationException.INVALID_VALUE_FOR_TANGENT, e.getErrorCode());
+
+		calculator.setAngleMode(AngleMode.GRADIANS);
+		assertEquals("1", calculator.calculate("sin(100)").format());
+		assertEquals("100", calculator.calculate("90\u00B0").format());
+		assertEquals("100", calculator.calculate("acos(0)").format());
+
+		assertEquals("0.5", calc("cos(60\u00B0)"));
+	}
+
+	@Test
+	void testFunctionRegistry(){
+		Calculator calculator = new Calculator();
+		// unknown function is rejected before its argument is evaluated
+		CalculationException e = assertThrows(TreeBuildingException.class, () -> calculator.calculate("2+foo(1/0)"));
+		assertEquals(CalculationException.UNKNOWN_FUNCTION, e.getErrorCode());
+		assertEquals("0.5", calculator.calculate("asin(sin(0.5))").format());
+		assertEquals("(1; 2)", calculator.calculate("abs(-1;-2)").format());
+		assertEquals("6", calculator.calculate("sum(1;(2;3))").format());
+
+		calculator.getFunctionRegistry().register(new FunctionHandle.Builder("twice")
+				.setFunction(x -> x.multiply(BigDecimal.valueOf(2)))
+				.build());
+		assertEquals("(2; 4)", calculator.calculate("twice(1;2)").format());
+		assertEquals(1, calculator.estimateCost("sin(twice(1))").getTranscendentalCalls());
+
+		calculator.setFunctionsResolver((funcName, suffix, operand) -> funcName.equals("sin") ? BigDecimal.TEN : null);
+		assertEquals("10", calculator.calculate("sin(1)").format());
+		assertEquals("2", calculator.calculate("twice(1)").format());
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("foo(1)"));
+		assertEquals(CalculationException.UNKNOWN_FUNCTION, e.getErrorCode());
+	}
+
+	@Test
+	void testUserFunctions(){
+		Calculator calculator = new Calculator();
+		calculator.defineFunction("f(x; y) = x^2 + y");
+		assertEquals("15", calculator.calculate("f(3;5)+1").format());
+		CalculationException e = assertThrows(CalculationException.class, () -> calculator.calculate("f(1;2;3)"));
+		assertEquals(CalculationException.TOO_MANY_ARGUMENTS, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calculator.defineFunction("f(x)=x"));
+		assertEquals(CalculationException.INVALID_FUNCTION_DEFINITION, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calculator.defineFunction("h(x)="));
+		assertEquals(CalculationException.INVALID_FUNCTION_DEFINITION, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calculator.defineFunction("k(x)=foo(x)"));
+		assertEquals(CalculationException.UNKNOWN_FUNCTION, e.getErrorCode());
+		for (String expression : new String[]{"h(1)", "k(1)"}) {
+			e = assertThrows(CalculationException.class, () -> calculator.calculate(expression));
+			assertEquals(CalculationException.UNKNOWN_FUNCTION, e.getErrorCode());
+		}
+
+		calculator.defineFunction("fib(0)=0");
+		calculator.defineFunction("fib(1)=1");
+		calculator.defineFunction("fib(n)=fib(n-1)+fib(n-2)", true);
+		assertEquals("2880067194370816120", calculator.calculate("fib(90)").format());
+		assertEquals("(1; 1; 2; 55)", calculator.calculate("fib(1;2;3;10)").format());
+
+		calculator.defineFunction("g(n)=g(n-1)+1");
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("g(3)"));
+		assertEquals(CalculationException.CALL_DEPTH_EXCEEDED, e.getErrorCode());
+
+		CompiledExpression compiled = calculator.compile("f(fib(10);1)");
+		assertEquals("3026", compiled.evaluate().format());
+		calculator.defineFunction("f(x;y)=x+y");
+		assertEquals("56", compiled.evaluate().format());
+	}
+
+	@Test
+	void testGenerators(){
+		assertEquals("(0; 0.25; 0.5; 0.75; 1)", calc("range(0;1;0.25)"));
+		assertEquals("(-1; -2; -3)", calc("-range(1;3)"));
+		assertEquals("500000500000", calc("sum(range(1;1000000))"));
+		assertEquals("50.5", calc("A(range(1;100))"));
+		assertEquals("0", calc("sum(range(5;1))"));
+		assertEquals("385", calc("sum(seq(i^2;i;1;10))"));
+		assertEquals("(1; 4; 9)", calc("seq(i^2;i;1;3)"));
+
+		Calculator calculator = new Calculator();
+		calculator.defineFunction("s(n)=sum(seq(n*i;i;1;3))");
+		assertEquals("12", calculator.calculate("s(2)").format());
+		CalculationException e = assertThrows(CalculationException.class, () -> calculator.calculate("range(1;10000000)"));
+		assertEquals(CalculationException.LIST_TOO_LARGE, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calculator.calculate("seq(1;2;1;3)"));
+		assertEquals(CalculationException.INVALID_VARIABLE, e.getErrorCode());
+	}
+
+	@Test
+	void testBoundLists(){
+		Calculator calculator = new Calculator();
+		assertEquals("0.6", calculator.calculate("sum(x)", Map.of("x", NumberList.of(new double[]{0.1, 0.2, 0.3})), null).format());
+		assertEquals("(2; 4; 6)", calculator.calculate("2*x", Map.of("x", NumberList.of(new long[]{1, 2, 3})), null).format());
+		assertEquals("6", calculator.calculate("gcd(x)",
+				Map.of("x", NumberList.of(new BigDecimal[]{BigDecimal.valueOf(12), BigDecimal.valueOf(18)})), null).format());
+
+		ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES);
+		buffer.putLong(5).putLong(7).putLong(9).flip();
+		assertEquals("7", calculator.calculate("A(x)", Map.of("x", NumberList.ofPackedLongs(buffer)), null).format());
+
+		double[] large = new double[2_000_000];
+		Arrays.fill(large, 0.5);
+		CompiledExpression compiled = calculator.compile("sum(x)+n");
+		assertEquals("1000001", compiled.evaluate(Map.of("x", NumberList.of(large), "n", NumberList.of(BigDecimal.ONE))).format());
+		CalculationException e = assertThrows(CalculationException.class, () -> compiled.evaluate(Map.of("x", NumberList.of(large))));
+		assertEquals(CalculationException.UNKNOWN_CONSTANT, e.getErrorCode());
+
+		// gcd and lcm consume bound lists larger than materialization limit
+		long[] multiples = new long[LazyNumberList.MAX_MATERIALIZED_SIZE + 1];
+		for (int i = 0; i < multiples.length; i++)
+			multiples[i] = 6L * (i % 1000 + 1);
+		assertEquals("6", calculator.calculate("gcd(y)", Map.of("y", NumberList.of(multiples)), null).format());
+		assertEquals("12", calculator.calculate("lcm(y)", Map.of("y", NumberList.of(new long[]{4, 6})), null).format());
+		e = assertThrows(CalculationException.class, () -> calc("gcd(5)"));
+		assertEquals(CalculationException.TOO_FEW_ARGUMENTS, e.getErrorCode());
+	}
+
+	@Test
+	void testBatchEvaluation(){
+		Calculator calculator = new Calculator();
+		calculator.defineFunction("f(x)=x^2+1");
+		int n = 10_000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i * 0.01 - 50;
+			y[i] = i % 7;
+		}
+		double[] out = new double[n];
+		CompiledExpression compiled = calculator.compile("sin(x)^2+cos(x)^2+sqrt(y)*f(y)-[x]+10%");
+		compiled.evaluateBatch(Map.of("x", x, "y", y), out);
+		for (int i = 0; i < n; i++) {
+			double expected = 1 + Math.sqrt(y[i]) * (y[i] * y[i] + 1) - (x[i] < 0 ? -Math.floor(-x[i] + 0.5) : Math.floor(x[i] + 0.5));
+			assertEquals(expected * 1.1, out[i], 1e-9, "row " + i);
+		}
+
+		// rows with errors get NaN, cancellation is recomputed exactly
+		CompiledExpression division = calculator.compile("1/(x-1)+(x+10^16)-10^16");
+		double[] values = {1, 2, 0.5};
+		out = new double[3];
+		assertEquals(3, division.evaluateBatch(Map.of("x", values), out));
+		assertTrue(Double.isNaN(out[0]));
+		assertEquals(3, out[1]);
+		assertEquals(-1.5, out[2]);
+		assertThrows(IllegalArgumentException.class, () -> division.evaluateBatch(Map.of("x", values), new double[4]));
+		CalculationException e = assertThrows(CalculationException.class,
+				() -> division.evaluateBatchOrThrow(Map.of("x", values), new double[3], null));
+		assertEquals(CalculationException.DIVISION_BY_ZERO, e.getErrorCode());
+
+		// errors which do not depend on row are thrown
+		e = assertThrows(CalculationException.class,
+				() -> calculator.compile("x+z").evaluateBatch(Map.of("x", values), new double[3]));
+		assertEquals(CalculationException.UNKNOWN_CONSTANT, e.getErrorCode());
+		CancellationToken cancelled = new CancellationToken();
+		cancelled.cancel();
+		e = assertThrows(CalculationException.class,
+				() -> calculator.compile("f(x)").evaluateBatch(Map.of("x", x), new double[n], cancelled));
+		assertEquals(CalculationException.EVALUATION_CANCELLED, e.getErrorCode());
+	}
+
+	@Test
+	void testPlotSampling(){
+		PlotSamples tan = calculator.compile("tan(x)").sample("x", -3, 3, 500);
+		assertTrue(tan.size() <= 500 + 2);
+		int breaks = 0;
+		for (int i = 0; i < tan.size(); i++) {
+			if (i > 0)
+				assertTrue(tan.getX()[i] > tan.getX()[i - 1]);
+			if (Double.isNaN(tan.getY()[i])) {
+				breaks++;
+				assertEquals(Math.PI / 2, Math.abs(tan.getX()[i]), 1e-3);
+			} else {
+				assertEquals(Math.tan(tan.getX()[i]), tan.getY()[i], 1e-6 * Math.max(1, Math.abs(tan.getY()[i])));
+			}
+		}
+		assertEquals(2, breaks);
+
+		// points are dense near boundary of domain and sparse on straight line
+		PlotSamples ln = calculator.compile("ln(x)").sample("x", -1, 1, 200);
+		double boundary = Double.NaN;
+		for (int i = 1; i < ln.size(); i++) {
+			if (Double.isNaN(ln.getY()[i - 1]) && !Double.isNaN(ln.getY()[i]))
+				boundary = ln.getX()[i];
+		}
+		assertTrue(boundary > 0 && boundary < 1e-3);
+		assertTrue(calculator.compile("2*x+1").sample("x", 0, 10, 1000).size() < 300);
+		assertThrows(IllegalArgumentException.class, () -> calculator.compile("x").sample("x", 1, 1, 10));
+	}
+
+	@Test
+	void testCalculus(){
+		assertEquals("2", calc("integrate(sin(x);x;0;pi)"));
+		assertEquals("-9", calc("integrate(x^2;x;3;0)"));
+		assertEquals("2", calc("integrate(1/sqrt(x);x;0;1)"));
+		assertEquals("3.14159265", calc("integrate(2.718281828459045^(-x^2);x;-10;10)^2"));
+		Quadrature.Result result = Quadrature.integrate((x, y) -> {
+			for (int i = 0; i < x.length; i++)
+				y[i] = Math.cos(x[i]);
+		}, 0, 1);
+		assertEquals(Math.sin(1), result.getValue(), 1e-14);
+		assertTrue(result.getErrorEstimate() < 1e-10);
+
+		CalculationException e = assertThrows(CalculationException.class, () -> calc("integrate(1/x;x;-1;1)"));
+		assertEquals(CalculationException.DIVISION_BY_ZERO, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calc("integrate(1/x;x;0;1)"));
+		assertEquals(CalculationException.NOT_CONVERGED, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calc("integrate(y;x;0;1)"));
+		assertEquals(CalculationException.UNKNOWN_CONSTANT, e.getErrorCode());
+		long start = System.nanoTime();
+		e = assertThrows(CalculationException.class,
+				() -> calculator.calculate("integrate(sigma(sin(j*x);j;1;300);x;0;1)", CancellationToken.withTimeout(300)));
+		assertEquals(CalculationException.EVALUATION_TIME_LIMIT_EXCEEDED, e.getErrorCode());
+		assertTrue(System.nanoTime() - start < 2_000_000_000L);
+
+		assertEquals("338350", calc("sigma(i^2;i;1;100)"));
+		assertEquals("25", calc("sigma(i;i;1;10;2)"));
+		assertEquals("10", calc("sigma(1;i;1;10)"));
+		assertEquals("2.08333333", calc("integrate(sigma(x^k;k;0;3);x;0;1)"));
+		assertEquals("9.28318531", calc("sum(pi;pi;1;2)"));
+		assertEquals("13.42477796", calc("sum(2*pi;pi;1;3)"));
+		assertEquals("6.23606798", calc("sum(fi;fi;1;2)"));
+		Calculator calculator = new Calculator();
+		assertEquals("13", calculator.calculate("sum(x;x;1;2)", Map.of("x", NumberList.of(BigDecimal.valueOf(5))), null).format());
+		calculator.defineFunction("F(t)=integrate(x*t;x;0;1)");
+		assertEquals("2", calculator.calculate("F(4)").format());
+	}
+
+	@Test
+	void testSolver(){
+		Solution sqrt2 = calculator.compile("x^2-2").solve("x", 0, 2, 40);
+		assertEquals(new BigDecimal("1.41421356237309504880168872420969807857"), sqrt2.getRoot());
+		assertTrue(sqrt2.getResidual().abs().compareTo(new BigDecimal("1E-38")) < 0);
+		assertTrue(sqrt2.getIterations() < 30);
+
+		Solution newton = calculator.compile("x^3-x-1").solve("x", 1, 2, 30, calculator.compile("3*x^2-1"), null);
+		assertEquals(new BigDecimal("1.32471795724474602596090885448"), newton.getRoot());
+		assertEquals(new BigDecimal("3"), calculator.compile("x-3").solve("x", 0, 5, 10).getRoot());
+		assertEquals(0.7390851332, calculator.compile("cos(x)-x").solve("x", 0, 1, 10).getRoot().doubleValue(), 1e-10);
+
+		CalculationException e = assertThrows(CalculationException.class, () -> calculator.compile("x^2+1").solve("x", -1, 1, 10));
+		assertEquals(CalculationException.ROOT_NOT_BRACKETED, e.getErrorCode());
+
+		// sign changes at pole and at jump are not roots
+		e = assertThrows(CalculationException.class, () -> calculator.compile("tan(x)").solve("x", 1, 2, 10));
+		assertEquals(CalculationException.NOT_CONVERGED, e.getErrorCode());
+		e = assertThrows(CalculationException.class, () -> calculator.compile("[x]-0.5").solve("x", 0, 1, 10));
+		assertEquals(CalculationException.NOT_CONVERGED, e.getErrorCode());
+		assertEquals(new BigDecimal("3.141592654"), calculator.compile("tan(x)").solve("x", 3, 3.5, 10).getRoot());
+	}
+
+	@Test
+	void testDifferentiation(){
+		Map<String, NumberList> point = Map.of("x", NumberList.of(new BigDecimal("0.5")), "y", NumberList.of(BigDecimal.valueOf(2)));
+		CompiledExpression expression = calculator.compile("x^2*y+sin(x)*ln(y)-x/y");
+		Derivatives derivatives = expression.gradient(List.of("x", "y"), point);
+		assertEquals(expression.evaluate(point).getSingleNumberIfTrue(), derivatives.getValue());
+		assertEquals(2 + Math.cos(0.5) * Math.log(2) - 0.5, derivatives.getPartial("x").doubleValue(), 1e-15);
+		assertEquals(0.25 + Math.sin(0.5) / 2 + 0.125, derivatives.getPartial("y").doubleValue(), 1e-15);
+
+		CompiledExpression identity = calculator.compile("cos(x)^2+sin(x)^2");
+		assertEquals(identity.evaluate(point).getSingleNumberIfTrue(), identity.differentiate("x", point).getValue());
+		assertEquals(0, BigDecimal.ONE.compareTo(identity.differentiate("x", point).getValue()));
+
+		assertEquals(-0.75, calculator.compile("-x^3").differentiate("x", point).getPartial("x").doubleValue());
+		assertEquals(Math.log(0.5) / 4, calculator.compile("x^y").differentiate("y", point).getPartial("y").doubleValue(), 1e-15);
+		assertEquals(1.1, calculator.compile("x+10%").differentiate("x", point).getPartial("x").doubleValue());
+		assertEquals(0.01, calculator.compile("x%").differentiate("x", point).getPartial("x").doubleValue());
+		assertEquals(0, calculator.compile("[x]*y").differentiate("x", point).getPartial("x").signum());
+
+		Calculator degrees = new Calculator();
+		degrees.setAngleMode(AngleMode.DEGREES);
+		Derivatives sin = degrees.compile("sin(x)").differentiate("x", Map.of("x", NumberList.of(BigDecimal.valueOf(60))));
+		assertEquals(Math.PI / 360, sin.getPartial("x").doubleValue(), 1e-15);
+
+		CalculationException e = assertThrows(CalculationException.class,
+				() -> calculator.compile("(x)!").differentiate("x", point));
+		assertEquals(CalculationException.NOT_DIFFERENTIABLE, e.getErrorCode());
+	}
+
 	@Test
 	void testLists(){
 		assertEquals("(1; 2; 3)", calc("(1;2;3)"));
 		assertEquals("(1; 2; 3)", calc("1; 2;3"));
 		assertEquals("(1; 5)", calc("(1;2+3)"));
 		assertEquals("(2; 4)", calc("2*(1;2)"));
+		assertEquals("(4; 10; 18)", calc("(1;2;3)*(4;5;6)"));
+		assertEquals("(11; (22; 23))", calc("(1;(2;3))+(10;20)"));
+		assertEquals("(110; 240)", calc("(100;200)+(10;20)%"));
+		assertEquals("333333833333500000", calc("sum(range(1;1000000)*range(1;1000000))"));
+		CalculationException e = assertThrows(CalculationException.class, () -> calc("(1;2)+(1;2;3)"));
+		assertEquals(CalculationException.LISTS_SIZES_MISMATCH, e.getErrorCode());
 	}
 
 }
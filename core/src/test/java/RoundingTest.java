@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 MaxSav Team
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of  MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.maxsavteam.calculator.utils.CalculatorUtils;
+import com.maxsavteam.calculator.utils.Fraction;
+import com.maxsavteam.calculator.utils.MathUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares numeric rounding utilities with their previous implementations on plain strings
+ */
+class RoundingTest {
+
+	private static List<BigDecimal> samples() {
+		List<BigDecimal> samples = new ArrayList<>();
+		for (String s : new String[]{
+				"0", "0.000", "1", "-1", "0.5", "-0.5", "1.5", "-1.5", "2.5", "-2.5", "0.4999", "-0.4999",
+				"12.000", "-12.000", "1E+5", "-1E+5", "1.20E+3", "0.00100", "-0.00100", "123.456", "-123.456", "9.9999", "-9.9999"
+		})
+			samples.add(new BigDecimal(s));
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; i++) {
+			BigInteger unscaled = new BigInteger(1 + random.nextInt(200), random);
+			if (random.nextBoolean())
+				unscaled = unscaled.negate();
+			samples.add(new BigDecimal(unscaled, random.nextInt(80) - 20));
+		}
+		return samples;
+	}
+
+	@Test
+	void testRounding(){
+		for (BigDecimal x : samples()) {
+			assertEquals(legacyFloor(x), MathUtils.floor(x), x.toString());
+			assertEquals(legacyCeil(x), MathUtils.ceil(x), x.toString());
+			assertEquals(legacyRound(x), MathUtils.round(x), x.toString());
+		}
+	}
+
+	@Test
+	void testZerosAndFractions(){
+		for (BigDecimal x : samples()) {
+			assertEquals(new BigDecimal(CalculatorUtils.removeZeros(x.toPlainString())), CalculatorUtils.removeZeros(x), x.toString());
+			assertEquals(legacyIsFraction(x), Fraction.isFraction(x), x.toString());
+			if (x.signum() > 0 || !Fraction.isFraction(x)) {
+				// legacy constructor does not terminate for negative fractions
+				BigInteger[] legacy = legacyFraction(x);
+				Fraction fraction = new Fraction(x);
+				assertEquals(legacy[0], fraction.getNumerator(), x.toString());
+				assertEquals(legacy[1], fraction.getDenominator(), x.toString());
+			}
+		}
+		// integer zeros are kept as they are, so huge integers are not rebuilt
+		BigDecimal huge = new BigDecimal(BigInteger.TEN.pow(200_000).multiply(BigInteger.valueOf(7)));
+		assertSame(huge, CalculatorUtils.removeZeros(huge));
+		assertEquals(huge, CalculatorUtils.removeZeros(huge.setScale(3)));
+		assertEquals(new BigDecimal(huge.unscaledValue().add(BigInteger.ONE).toString() + ".5"),
+				CalculatorUtils.removeZeros(new BigDecimal(huge.unscaledValue().add(BigInteger.ONE).toString() + ".500")));
+
+		Fraction fraction = new Fraction(new BigDecimal("-0.75"));
+		assertEquals(BigInteger.valueOf(-3), fraction.getNumerator());
+		assertEquals(BigInteger.valueOf(4), fraction.getDenominator());
+	}
+
+	private static BigDecimal legacyFloor(BigDecimal x) {
+		String s = x.toPlainString();
+		int pos = s.indexOf(".");
+		if (pos == -1 || pos == s.length() - 1)
+			return x;
+		return new BigDecimal(s.substring(0, pos));
+	}
+
+	private static BigDecimal legacyCeil(BigDecimal x) {
+		String s = x.toPlainString();
+		int pos = s.indexOf(".");
+		if (pos == -1 || pos == s.length() - 1)
+			return x;
+		String afterDot = s.substring(pos + 1);
+		if (CalculatorUtils.removeZeros(afterDot).equals("0"))
+			return new BigDecimal(s.substring(0, pos));
+		BigDecimal b = new BigDecimal(s.substring(0, pos)).abs().add(BigDecimal.ONE);
+		if (s.charAt(0) == '-')
+			b = b.negate();
+		return b;
+	}
+
+	private static BigDecimal legacyRound(BigDecimal x) {
+		String s = x.toPlainString();
+		int pos = s.indexOf(".");
+		if (pos == -1 || pos == s.length() - 1)
+			return x;
+		String newString = s.substring(0, pos);
+		char next = s.charAt(pos + 1);
+		if (next < '5')
+			return new BigDecimal(newString);
+		BigDecimal b = new BigDecimal(newString).abs().add(BigDecimal.ONE);
+		if (newString.charAt(0) == '-')
+			b = b.negate();
+		return b;
+	}
+
+	private static boolean legacyIsFraction(BigDecimal a) {
+		String s = a.toPlainString();
+		int pos = s.indexOf('.');
+		if (pos == -1)
+			return false;
+		for (int i = pos + 1; i < s.length(); i++) {
+			if (s.charAt(i) != '0')
+				return true;
+		}
+		return false;
+	}
+
+	private static BigInteger[] legacyFraction(BigDecimal b) {
+		String s = b.toPlainString();
+		if (legacyIsFraction(b)) {
+			int pos = s.indexOf(".");
+			BigInteger denominator = BigInteger.TEN.pow(s.length() - pos - 1);
+			BigInteger numerator = new BigInteger(new StringBuilder(s).deleteCharAt(pos).toString());
+			BigInteger g = numerator.gcd(denominator);
+			return new BigInteger[]{numerator.divide(g), denominator.divide(g)};
+		}
+		if (s.contains("."))
+			s = s.substring(0, s.indexOf("."));
+		return new BigInteger[]{new BigInteger(s), BigInteger.ONE};
+	}
+
+}